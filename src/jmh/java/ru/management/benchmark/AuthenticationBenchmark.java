@@ -0,0 +1,66 @@
+package ru.management.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.springframework.security.authentication.AuthenticationProvider;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.authentication.dao.DaoAuthenticationProvider;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.userdetails.User;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.security.provisioning.InMemoryUserDetailsManager;
+import ru.management.config.CachingAuthenticationProvider;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Стоимость проверки Basic аутентификации на запрос: BCrypt на каждый запрос против кэша успешных проверок
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class AuthenticationBenchmark {
+
+    private AuthenticationProvider bcryptProvider;
+    private AuthenticationProvider cachingProvider;
+
+    @Setup
+    public void setUp() {
+        PasswordEncoder passwordEncoder = new BCryptPasswordEncoder();
+        InMemoryUserDetailsManager userDetailsService = new InMemoryUserDetailsManager(
+                User.builder().username("admin").password(passwordEncoder.encode("admin")).roles("ADMIN").build());
+
+        DaoAuthenticationProvider daoAuthenticationProvider = new DaoAuthenticationProvider();
+        daoAuthenticationProvider.setUserDetailsService(userDetailsService);
+        daoAuthenticationProvider.setPasswordEncoder(passwordEncoder);
+
+        CachingAuthenticationProvider cachingAuthenticationProvider =
+                new CachingAuthenticationProvider(Duration.ofMinutes(10), 100);
+        cachingAuthenticationProvider.setUserDetailsService(userDetailsService);
+        cachingAuthenticationProvider.setPasswordEncoder(passwordEncoder);
+
+        bcryptProvider = daoAuthenticationProvider;
+        cachingProvider = cachingAuthenticationProvider;
+    }
+
+    @Benchmark
+    public Authentication bcryptEveryRequest() {
+        return bcryptProvider.authenticate(request());
+    }
+
+    @Benchmark
+    public Authentication cachedCredentials() {
+        return cachingProvider.authenticate(request());
+    }
+
+    private static Authentication request() {
+        return UsernamePasswordAuthenticationToken.unauthenticated("admin", "admin");
+    }
+}
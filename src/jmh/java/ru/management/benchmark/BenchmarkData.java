@@ -0,0 +1,60 @@
+package ru.management.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.databind.json.JsonMapper;
+import ru.management.entity.Tag;
+import ru.management.entity.Task;
+import ru.management.enums.TaskPriority;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Данные для бенчмарков: задачи ссылаются на общий набор тегов, как в одном контексте персистентности
+ */
+final class BenchmarkData {
+
+    private static final int TAG_POOL_SIZE = 50;
+    private static final LocalDateTime START = LocalDateTime.of(2030, 1, 1, 10, 0);
+
+    private BenchmarkData() {
+    }
+
+    static List<Task> tasks(int taskCount, int tagsPerTask) {
+        List<Tag> tagPool = new ArrayList<>(TAG_POOL_SIZE);
+        for (long i = 0; i < TAG_POOL_SIZE; i++) {
+            tagPool.add(Tag.builder().id(i + 1).name("#tag" + i).taskCount(taskCount).build());
+        }
+
+        List<Task> tasks = new ArrayList<>(taskCount);
+        for (int i = 0; i < taskCount; i++) {
+            Set<Tag> tags = new HashSet<>();
+            for (int j = 0; j < tagsPerTask; j++) {
+                tags.add(tagPool.get((i + j) % TAG_POOL_SIZE));
+            }
+            tasks.add(Task.builder()
+                    .id((long) i + 1)
+                    .name("Задача " + i)
+                    .description("Описание задачи " + i)
+                    .scheduledDate(START.plusMinutes(i))
+                    .priority(TaskPriority.values()[i % TaskPriority.values().length])
+                    .tags(tags)
+                    .build());
+        }
+        return tasks;
+    }
+
+    /**
+     * Настройки сериализации как у ObjectMapper приложения: даты строкой ISO
+     */
+    static ObjectMapper objectMapper() {
+        return JsonMapper.builder()
+                .findAndAddModules()
+                .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+                .build();
+    }
+}
@@ -0,0 +1,84 @@
+package ru.management.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+import ru.management.entity.Tag;
+import ru.management.entity.Task;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Вычисление hashCode и equals сущностей при работе с коллекциями Set
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class EntityHashingBenchmark {
+
+    @Param({"1", "100", "10000"})
+    private int taskCount;
+
+    @Param({"0", "5", "20"})
+    private int tagsPerTask;
+
+    private List<Task> tasks;
+    private Set<Task> taskSet;
+
+    @Setup
+    public void setUp() {
+        tasks = BenchmarkData.tasks(taskCount, tagsPerTask);
+        taskSet = new HashSet<>(tasks);
+    }
+
+    /**
+     * Заполнение коллекций тегов, как при инициализации PersistentSet
+     */
+    @Benchmark
+    public void rebuildTagSets(Blackhole blackhole) {
+        for (Task task : tasks) {
+            blackhole.consume(new HashSet<>(task.getTags()));
+        }
+    }
+
+    /**
+     * Проверка наличия тега у задачи, как в addTagToTask и removeTagFromTask
+     */
+    @Benchmark
+    public int containsTag() {
+        int found = 0;
+        for (Task task : tasks) {
+            for (Tag tag : task.getTags()) {
+                if (task.getTags().contains(tag)) {
+                    found++;
+                }
+            }
+        }
+        return found;
+    }
+
+    @Benchmark
+    public Set<Task> buildTaskSet() {
+        return new HashSet<>(tasks);
+    }
+
+    @Benchmark
+    public int containsTask() {
+        int found = 0;
+        for (Task task : tasks) {
+            if (taskSet.contains(task)) {
+                found++;
+            }
+        }
+        return found;
+    }
+}
@@ -0,0 +1,62 @@
+package ru.management.benchmark;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import org.mapstruct.factory.Mappers;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import ru.management.dto.task.TaskResponse;
+import ru.management.entity.Task;
+import ru.management.mapper.TaskMapper;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Путь ответа со списком задач: маппинг сущностей в DTO и сериализация в JSON
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class TaskResponseBenchmark {
+
+    @Param({"1", "100", "10000"})
+    private int taskCount;
+
+    @Param({"0", "5", "20"})
+    private int tagsPerTask;
+
+    private TaskMapper taskMapper;
+    private ObjectWriter writer;
+    private List<Task> tasks;
+    private List<TaskResponse> responses;
+
+    @Setup
+    public void setUp() {
+        taskMapper = Mappers.getMapper(TaskMapper.class);
+        writer = BenchmarkData.objectMapper().writerFor(TaskResponse[].class);
+        tasks = BenchmarkData.tasks(taskCount, tagsPerTask);
+        responses = taskMapper.entityListToResponseList(tasks);
+    }
+
+    @Benchmark
+    public List<TaskResponse> mapToDto() {
+        return taskMapper.entityListToResponseList(tasks);
+    }
+
+    @Benchmark
+    public byte[] serialize() throws JsonProcessingException {
+        return writer.writeValueAsBytes(responses.toArray(TaskResponse[]::new));
+    }
+
+    @Benchmark
+    public byte[] mapAndSerialize() throws JsonProcessingException {
+        return writer.writeValueAsBytes(taskMapper.entityListToResponseList(tasks).toArray(TaskResponse[]::new));
+    }
+}
@@ -0,0 +1,45 @@
+package ru.management.config;
+
+/**
+ * Имена кэшей приложения
+ */
+public final class CacheNames {
+
+    /**
+     * Приоритеты задач
+     */
+    public static final String TASK_PRIORITY = "TaskPriority";
+
+    /**
+     * Задача по id
+     */
+    public static final String TASK = "task";
+
+    /**
+     * Задачи по id тега
+     */
+    public static final String TASKS_BY_TAG = "tasksByTag";
+
+    /**
+     * Теги, у которых есть задачи
+     */
+    public static final String TAGS_FOR_TASKS = "tagsForTasks";
+
+    /**
+     * Статистика задач за прошедший день
+     */
+    public static final String TASK_STATS = "taskStats";
+
+    /**
+     * Регион кэша второго уровня для тегов по id
+     */
+    public static final String TAG_REGION = "tag";
+
+    /**
+     * Регион кэша запроса тегов, у которых есть задачи
+     */
+    public static final String TAGS_FOR_TASKS_QUERY_REGION = "tagsForTasksQuery";
+
+    private CacheNames() {
+    }
+}
@@ -0,0 +1,83 @@
+package ru.management.config;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.authentication.dao.DaoAuthenticationProvider;
+import org.springframework.security.core.AuthenticationException;
+import org.springframework.security.core.userdetails.UserDetails;
+
+import javax.crypto.KeyGenerator;
+import javax.crypto.Mac;
+import javax.crypto.SecretKey;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.time.Duration;
+import java.util.Base64;
+
+/**
+ * Провайдер аутентификации, который запоминает успешные проверки пароля на короткое время.
+ * BCrypt выполняется один раз на пару логин/пароль за период жизни записи, дальше проверка идет по кэшу.
+ * Кэшируется только сравнение пароля: пользователь загружается заново на каждый запрос,
+ * и блокировка, отключение или истечение срока учетной записи действуют сразу.
+ * Ключ кэша - HMAC от логина, пароля и хэша пароля пользователя на случайном ключе процесса:
+ * пароль в памяти не хранится, подобрать его по содержимому кэша без ключа нельзя,
+ * а смена пароля дает другой ключ. Неуспешные проверки не кэшируются
+ */
+public class CachingAuthenticationProvider extends DaoAuthenticationProvider {
+
+    private static final String HMAC_ALGORITHM = "HmacSHA256";
+
+    private final Cache<String, Boolean> verifiedCredentials;
+    private final SecretKey key;
+
+    public CachingAuthenticationProvider(Duration ttl, long maximumSize) {
+        this.verifiedCredentials = Caffeine.newBuilder()
+                .expireAfterWrite(ttl)
+                .maximumSize(maximumSize)
+                .build();
+        try {
+            this.key = KeyGenerator.getInstance(HMAC_ALGORITHM).generateKey();
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("Алгоритм " + HMAC_ALGORITHM + " недоступен", e);
+        }
+    }
+
+    @Override
+    protected void additionalAuthenticationChecks(UserDetails userDetails,
+                                                  UsernamePasswordAuthenticationToken authentication)
+            throws AuthenticationException {
+        if (authentication.getCredentials() == null || userDetails.getPassword() == null) {
+            super.additionalAuthenticationChecks(userDetails, authentication);
+            return;
+        }
+        String cacheKey = cacheKey(userDetails.getUsername(), authentication.getCredentials().toString(),
+                userDetails.getPassword());
+        if (verifiedCredentials.getIfPresent(cacheKey) != null) {
+            return;
+        }
+        super.additionalAuthenticationChecks(userDetails, authentication);
+        verifiedCredentials.put(cacheKey, Boolean.TRUE);
+    }
+
+    /**
+     * Сбросить запомненные проверки, например после смены пароля в обход хранилища пользователей
+     */
+    public void invalidateAll() {
+        verifiedCredentials.invalidateAll();
+    }
+
+    private String cacheKey(String username, String password, String passwordHash) {
+        try {
+            Mac mac = Mac.getInstance(HMAC_ALGORITHM);
+            mac.init(key);
+            mac.update(username.getBytes(StandardCharsets.UTF_8));
+            mac.update((byte) 0);
+            mac.update(passwordHash.getBytes(StandardCharsets.UTF_8));
+            mac.update((byte) 0);
+            return Base64.getEncoder().encodeToString(mac.doFinal(password.getBytes(StandardCharsets.UTF_8)));
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("Не удалось вычислить ключ кэша аутентификации", e);
+        }
+    }
+}
@@ -0,0 +1,27 @@
+package ru.management.config;
+
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpMethod;
+import org.springframework.web.context.request.ServletWebRequest;
+import org.springframework.web.servlet.HandlerInterceptor;
+import ru.management.service.impl.DataVersionTracker;
+
+/**
+ * Ответ 304 на GET запросы списков, если данные не менялись с версии из If-None-Match.
+ * Версия берется до выполнения запроса, поэтому изменение во время чтения приведет лишь к повторной загрузке
+ */
+@RequiredArgsConstructor
+public class DataVersionInterceptor implements HandlerInterceptor {
+
+    private final DataVersionTracker dataVersionTracker;
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        if (!HttpMethod.GET.matches(request.getMethod()) && !HttpMethod.HEAD.matches(request.getMethod())) {
+            return true;
+        }
+        return !new ServletWebRequest(request, response).checkNotModified(dataVersionTracker.currentETag());
+    }
+}
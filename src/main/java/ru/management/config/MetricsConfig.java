@@ -0,0 +1,63 @@
+package ru.management.config;
+
+import io.micrometer.core.aop.TimedAspect;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.hibernate.cfg.AvailableSettings;
+import org.hibernate.jpa.boot.spi.IntegratorProvider;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import ru.management.metrics.DownloadBytesMetricsFilter;
+import ru.management.metrics.HibernateRequestMetricsFilter;
+import ru.management.metrics.HibernateRequestStatistics;
+
+import java.util.List;
+
+@Configuration
+public class MetricsConfig {
+
+    private static final String INTEGRATOR_PROVIDER = "hibernate.integrator_provider";
+
+    /**
+     * Обработка аннотации @Timed на сервисах
+     */
+    @Bean
+    public TimedAspect timedAspect(MeterRegistry meterRegistry) {
+        return new TimedAspect(meterRegistry);
+    }
+
+    @Bean
+    public HibernateRequestStatistics hibernateRequestStatistics() {
+        return new HibernateRequestStatistics();
+    }
+
+    /**
+     * Подключение подсчета запросов к фабрике сессий: SQL через инспектор,
+     * загрузки сущностей и коллекций через слушатели событий
+     */
+    @Bean
+    public HibernatePropertiesCustomizer hibernateRequestStatisticsCustomizer(HibernateRequestStatistics statistics) {
+        return properties -> {
+            properties.put(AvailableSettings.STATEMENT_INSPECTOR, statistics);
+            properties.put(INTEGRATOR_PROVIDER, (IntegratorProvider) () -> List.of(statistics));
+        };
+    }
+
+    @Bean
+    public FilterRegistrationBean<HibernateRequestMetricsFilter> hibernateRequestMetricsFilter(
+            HibernateRequestStatistics statistics, MeterRegistry meterRegistry) {
+        FilterRegistrationBean<HibernateRequestMetricsFilter> registration =
+                new FilterRegistrationBean<>(new HibernateRequestMetricsFilter(statistics, meterRegistry));
+        registration.addUrlPatterns("/api/*");
+        return registration;
+    }
+
+    @Bean
+    public FilterRegistrationBean<DownloadBytesMetricsFilter> downloadBytesMetricsFilter(MeterRegistry meterRegistry) {
+        FilterRegistrationBean<DownloadBytesMetricsFilter> registration =
+                new FilterRegistrationBean<>(new DownloadBytesMetricsFilter(meterRegistry));
+        registration.addUrlPatterns("/api/task/downloadFile/*");
+        return registration;
+    }
+}
@@ -1,8 +1,10 @@
 package ru.management.config;
 
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.http.HttpMethod;
+import org.springframework.security.authentication.ProviderManager;
 import org.springframework.security.config.Customizer;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.config.annotation.web.configuration.EnableWebSecurity;
@@ -15,6 +17,8 @@ import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.security.provisioning.InMemoryUserDetailsManager;
 import org.springframework.security.web.SecurityFilterChain;
 
+import java.time.Duration;
+
 @Configuration
 @EnableWebSecurity
 public class SecurityConfig {
@@ -26,9 +30,26 @@ public class SecurityConfig {
         return new InMemoryUserDetailsManager(admin, user);
     }
 
+    /**
+     * Проверка пароля BCrypt с кэшем успешных проверок, чтобы Basic аутентификация
+     * не пересчитывала хэш на каждый запрос
+     */
+    @Bean
+    public CachingAuthenticationProvider authenticationProvider(UserDetailsService userDetailsService,
+                                                                PasswordEncoder passwordEncoder,
+                                                                @Value("${security.auth-cache.ttl}") Duration ttl,
+                                                                @Value("${security.auth-cache.maximum-size}") long maximumSize) {
+        CachingAuthenticationProvider authenticationProvider = new CachingAuthenticationProvider(ttl, maximumSize);
+        authenticationProvider.setUserDetailsService(userDetailsService);
+        authenticationProvider.setPasswordEncoder(passwordEncoder);
+        return authenticationProvider;
+    }
+
     @Bean
-    public SecurityFilterChain securityFilterChain(HttpSecurity http) throws Exception {
+    public SecurityFilterChain securityFilterChain(HttpSecurity http,
+                                                   CachingAuthenticationProvider authenticationProvider) throws Exception {
         return http
+                .authenticationManager(new ProviderManager(authenticationProvider))
                 .requiresChannel(channel ->
                         channel.anyRequest().requiresSecure())
                 .csrf(AbstractHttpConfigurer::disable)
@@ -0,0 +1,20 @@
+package ru.management.config;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+import ru.management.service.impl.DataVersionTracker;
+
+@Configuration
+@RequiredArgsConstructor
+public class WebConfig implements WebMvcConfigurer {
+
+    private final DataVersionTracker dataVersionTracker;
+
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        registry.addInterceptor(new DataVersionInterceptor(dataVersionTracker))
+                .addPathPatterns("/api/task", "/api/task/get-period", "/api/task/search", "/api/task/stats", "/api/task/tag/*", "/api/tag/tag-for-tasks");
+    }
+}
@@ -18,6 +18,9 @@ import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.DeleteMapping;
 import ru.management.dto.tag.TagCreateOrUpdateRequest;
+import ru.management.dto.tag.TagDeleteResponse;
+import ru.management.dto.tag.TagResolveRequest;
+import ru.management.dto.tag.TagResolveResponse;
 import ru.management.dto.tag.TagResponse;
 import ru.management.service.TagService;
 
@@ -54,6 +57,17 @@ public class TagController {
         return tagService.createTag(request);
     }
 
+    @PostMapping("/resolve")
+    @Operation(summary = "Получить теги по именам",
+            description = "Возвращает id всех переданных тегов, недостающие теги создаются одним запросом")
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", description = "Запрос прошел успешно"),
+            @ApiResponse(responseCode = "400", description = "Некорректные имена тегов")
+    })
+    public List<TagResolveResponse> resolve(@RequestBody @Valid TagResolveRequest request) {
+        return tagService.resolveTags(request.names());
+    }
+
     @PutMapping("/{tag_id}")
     @Operation(summary = "Обновить тег",
             description = "Обновляет существующий тег по ID")
@@ -68,13 +82,14 @@ public class TagController {
     }
 
     @DeleteMapping("/{tag_id}")
-    @ResponseStatus(HttpStatus.NO_CONTENT)
-    @Operation(summary = "Удалить тег и все связанные задачи.")
+    @Operation(summary = "Удалить тег и все связанные задачи.",
+            description = "Возвращает количество удаленных задач")
     @ApiResponses({
-            @ApiResponse(responseCode = "204", description = "Тег удалён"),
+            @ApiResponse(responseCode = "200", description = "Тег удалён"),
+            @ApiResponse(responseCode = "400", description = "У задач тега есть другие теги"),
             @ApiResponse(responseCode = "404", description = "Тег не найден")
     })
-    public void deleteTagWithTasks(@PathVariable Long tag_id) {
-        tagService.deleteTagAndTasks(tag_id);
+    public TagDeleteResponse deleteTagWithTasks(@PathVariable Long tag_id) {
+        return new TagDeleteResponse(tag_id, tagService.deleteTagAndTasks(tag_id));
     }
 }
\ No newline at end of file
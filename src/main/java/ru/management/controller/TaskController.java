@@ -1,17 +1,26 @@
 package ru.management.controller;
 
+import com.fasterxml.jackson.databind.JsonNode;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.Size;
 import lombok.RequiredArgsConstructor;
+import org.springframework.core.io.Resource;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.web.PageableDefault;
 import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.RestController;
 import org.springframework.web.bind.annotation.RequestMapping;
@@ -21,17 +30,32 @@ import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.PatchMapping;
 import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import ru.management.dto.file.FileDownload;
+import ru.management.dto.tag.TagResponse;
+import ru.management.dto.task.TaskBatchItemResponse;
 import ru.management.dto.task.TaskCreateOrUpdateRequest;
+import ru.management.dto.task.TaskDayStatsResponse;
 import ru.management.dto.task.TaskPriorityResponse;
 import ru.management.dto.task.TaskResponse;
+import ru.management.dto.task.TaskScrollResponse;
+import ru.management.dto.task.TaskTagBulkRequest;
+import ru.management.dto.task.TaskTagBulkResponse;
+import ru.management.entity.exception.PreconditionFailedException;
 import ru.management.service.TaskService;
+import ru.management.service.impl.ChangeFeedService;
 
-import java.io.File;
 import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
 import java.time.LocalDate;
+import java.util.Comparator;
 import java.util.List;
 
 @Validated
@@ -41,7 +65,10 @@ import java.util.List;
 @Tag(name = "Задачи", description = "Контроллер по управлению задачами")
 public class TaskController {
 
+    private static final String MERGE_PATCH_JSON_VALUE = "application/merge-patch+json";
+
     private final TaskService taskService;
+    private final ChangeFeedService changeFeedService;
 
     @Operation(summary = "Загрузить файл для задачи",
             description = "Загружает файл к задаче и возвращает обновленную информацию.")
@@ -58,16 +85,45 @@ public class TaskController {
         taskService.uploadFile(id, file);
     }
 
+    @Operation(summary = "Загрузить файл для задачи потоком",
+            description = "Принимает содержимое файла в теле запроса без multipart и сохраняет его без промежуточных копий. "
+                    + "Одинаковое содержимое хранится один раз")
+    @ApiResponses({
+            @ApiResponse(responseCode = "201", description = "Файл успешно загружен"),
+            @ApiResponse(responseCode = "404", description = "Задача не найдена"),
+            @ApiResponse(responseCode = "403", description = "Недостаточно прав")
+    })
+    @ResponseStatus(HttpStatus.CREATED)
+    @PostMapping(value = "/uploadFile/{id}", consumes = MediaType.ALL_VALUE)
+    public void uploadFile(@PathVariable Long id,
+                           @RequestParam String filename,
+                           @RequestHeader(value = HttpHeaders.CONTENT_TYPE, required = false) String contentType,
+                           InputStream content) {
+        taskService.uploadFile(id, filename, contentType, content);
+    }
+
     @Operation(summary = "Получить файл для задачи",
-            description = "Возвращает полный путь к файлу, связанный с задачей по ID")
+            description = "Возвращает содержимое файла, связанного с задачей по ID. "
+                    + "Поддерживает запросы диапазонов (Range) и условные запросы (If-None-Match, If-Modified-Since)")
     @ApiResponses(value = {
             @ApiResponse(responseCode = "200", description = "Файл успешно получен"),
+            @ApiResponse(responseCode = "206", description = "Получена часть файла"),
+            @ApiResponse(responseCode = "304", description = "Файл не изменился"),
             @ApiResponse(responseCode = "404", description = "Файл или задача не найдены"),
-            @ApiResponse(responseCode = "403", description = "Недостаточно прав")
+            @ApiResponse(responseCode = "416", description = "Запрошенный диапазон недоступен")
     })
     @GetMapping("/downloadFile/{id}")
-    public File downloadFile(@PathVariable Long id) throws IOException {
-        return taskService.downloadFile(id);
+    public ResponseEntity<Resource> downloadFile(@PathVariable Long id) throws IOException {
+        FileDownload file = taskService.downloadFile(id);
+        return ResponseEntity.ok()
+                .eTag(file.eTag())
+                .lastModified(file.lastModified())
+                .contentType(file.contentType())
+                .header(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.attachment()
+                        .filename(file.filename(), StandardCharsets.UTF_8)
+                        .build()
+                        .toString())
+                .body(file.resource());
     }
 
     @GetMapping
@@ -81,6 +137,78 @@ public class TaskController {
         return taskService.getAllTasks(pageable);
     }
 
+    @GetMapping("/search")
+    @Operation(summary = "Найти задачи по тексту",
+            description = "Возвращает статус 200, задачи в порядке релевантности по названию и описанию и курсор следующей порции. "
+                    + "Поддерживает синтаксис запроса: слова, \"фраза\", or, -исключение")
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", description = "Запрос прошел успешно"),
+            @ApiResponse(responseCode = "400", description = "Пустой запрос, некорректный курсор или размер порции")
+    })
+    public TaskScrollResponse searchTasks(@RequestParam("q") @NotBlank @Size(max = 200) String query,
+                                          @RequestParam(required = false) Long tagId,
+                                          @RequestParam(required = false) @DateTimeFormat LocalDate start,
+                                          @RequestParam(required = false) @DateTimeFormat LocalDate end,
+                                          @RequestParam(required = false) String cursor,
+                                          @RequestParam(defaultValue = "20") @Min(1) @Max(100) int size) {
+        return taskService.searchTasks(query, tagId, start, end, cursor, size);
+    }
+
+    @GetMapping(value = "/changes", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    @Operation(summary = "Подписаться на изменения задач и тегов",
+            description = "Возвращает поток Server-Sent Events с изменениями после их фиксации. "
+                    + "При переподключении с заголовком Last-Event-ID досылает пропущенные события, "
+                    + "если они еще в буфере, иначе присылает событие RESET")
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", description = "Подписка создана"),
+            @ApiResponse(responseCode = "403", description = "Недостаточно прав")
+    })
+    public SseEmitter subscribeToChanges(@RequestHeader(value = "Last-Event-ID", required = false) String lastEventId) {
+        return changeFeedService.subscribe(lastEventId);
+    }
+
+    @GetMapping("/stats")
+    @Operation(summary = "Получить количество задач по дням и приоритетам",
+            description = "Возвращает статус 200 и количество задач за каждый день периода по приоритетам. "
+                    + "Период включает обе даты и не длиннее 366 дней")
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", description = "Запрос прошел успешно"),
+            @ApiResponse(responseCode = "400", description = "Некорректный период")
+    })
+    public List<TaskDayStatsResponse> getTaskStats(@RequestParam("start") @DateTimeFormat LocalDate start,
+                                                   @RequestParam("end") @DateTimeFormat LocalDate end,
+                                                   @RequestParam(required = false) Long tagId) {
+        return taskService.getTaskStats(start, end, tagId);
+    }
+
+    @GetMapping("/{task_id}")
+    @Operation(summary = "Получить задачу",
+            description = "Возвращает статус 200 и задачу. Заголовок ETag содержит версию задачи и состояние "
+                    + "её тегов, его можно передать в If-Match при частичном обновлении")
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", description = "Запрос прошел успешно"),
+            @ApiResponse(responseCode = "304", description = "Задача не изменилась с версии из If-None-Match"),
+            @ApiResponse(responseCode = "404", description = "Задача не найдена")
+    })
+    public ResponseEntity<TaskResponse> getTask(@PathVariable Long task_id) {
+        TaskResponse task = taskService.getTask(task_id);
+        return ResponseEntity.ok().eTag(versionTag(task)).body(task);
+    }
+
+    @GetMapping("/scroll")
+    @Operation(summary = "Получить порцию задач по курсору",
+            description = "Возвращает статус 200, задачи в порядке даты завершения и курсор следующей порции. "
+                    + "Общее количество задач считается только при withTotal=true")
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", description = "Запрос прошел успешно"),
+            @ApiResponse(responseCode = "400", description = "Некорректный курсор или размер порции")
+    })
+    public TaskScrollResponse scrollTasks(@RequestParam(required = false) String cursor,
+                                          @RequestParam(defaultValue = "20") @Min(1) @Max(100) int size,
+                                          @RequestParam(defaultValue = "false") boolean withTotal) {
+        return taskService.scrollTasks(cursor, size, withTotal);
+    }
+
     @GetMapping("/get-priority")
     @Operation(summary = "Получить список типов задач с уровнем приоритета",
             description = "Возвращает статус 200 и список типов")
@@ -115,6 +243,21 @@ public class TaskController {
         return taskService.getAllTasksBetweenDateByPriorityDesc(start, end);
     }
 
+    @GetMapping(value = "/get-period/stream", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    @Operation(summary = "Выгрузить задачи за указанную дату с сортировкой по приоритету",
+            description = "Возвращает статус 200 и задачи в формате NDJSON, по одной задаче на строку")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Запрос прошел успешно"),
+            @ApiResponse(responseCode = "403", description = "Недостаточно прав")
+    })
+    public ResponseEntity<StreamingResponseBody> streamForPeriodDate(
+            @RequestParam("start") @DateTimeFormat LocalDate start,
+            @RequestParam("end") @DateTimeFormat LocalDate end) {
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .body(outputStream -> taskService.exportTasksBetweenDateByPriorityDesc(start, end, outputStream));
+    }
+
     @PostMapping("/save")
     @ResponseStatus(HttpStatus.CREATED)
     @Operation(summary = "Создать новую задачу",
@@ -127,6 +270,18 @@ public class TaskController {
         return taskService.createTask(request);
     }
 
+    @PostMapping("/batch")
+    @Operation(summary = "Создать задачи пакетом",
+            description = "Проверяет каждую задачу отдельно, сохраняет корректные и возвращает результат по каждой задаче")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Пакет обработан"),
+            @ApiResponse(responseCode = "400", description = "Пустой или слишком большой пакет")
+    })
+    public List<TaskBatchItemResponse> saveBatch(
+            @RequestBody @Size(min = 1, max = 10000) List<TaskCreateOrUpdateRequest> requests) {
+        return taskService.createTasks(requests);
+    }
+
     @PutMapping("/{task_id}")
     @Operation(summary = "Обновить задачу",
             description = "Обновляет существующую задачу по ID")
@@ -140,6 +295,25 @@ public class TaskController {
         return taskService.updateTask(task_id, request);
     }
 
+    @PatchMapping(value = "/{task_id}", consumes = {MERGE_PATCH_JSON_VALUE, MediaType.APPLICATION_JSON_VALUE})
+    @Operation(summary = "Частично обновить задачу",
+            description = "Применяет JSON Merge Patch: отсутствующие поля не меняются, null очищает поле. "
+                    + "Записываются только измененные поля. С заголовком If-Match изменение выполняется, "
+                    + "только если версия задачи совпадает с переданной")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Задача успешно обновлена"),
+            @ApiResponse(responseCode = "400", description = "Некорректные данные"),
+            @ApiResponse(responseCode = "404", description = "Задача не найдена"),
+            @ApiResponse(responseCode = "409", description = "Задача изменена параллельным запросом"),
+            @ApiResponse(responseCode = "412", description = "Версия задачи не совпадает с If-Match")
+    })
+    public ResponseEntity<TaskResponse> patch(@PathVariable Long task_id,
+                                              @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
+                                              @RequestBody JsonNode patch) {
+        TaskResponse task = taskService.patchTask(task_id, patch, expectedVersion(ifMatch));
+        return ResponseEntity.ok().eTag(versionTag(task)).body(task);
+    }
+
     @DeleteMapping("/{task_id}")
     @ResponseStatus(HttpStatus.NO_CONTENT)
     @Operation(summary = "Удалить задачу",
@@ -152,6 +326,32 @@ public class TaskController {
         taskService.deleteTask(task_id);
     }
 
+    @PostMapping("/tags/bulk")
+    @Operation(summary = "Добавить теги к задачам пакетом",
+            description = "Добавляет каждый тег каждой задаче одним запросом к базе, существующие связи пропускаются. "
+                    + "Возвращает количество добавленных связей")
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", description = "Теги добавлены"),
+            @ApiResponse(responseCode = "400", description = "Некорректные данные"),
+            @ApiResponse(responseCode = "404", description = "Задачи или теги не найдены")
+    })
+    public TaskTagBulkResponse linkTags(@RequestBody @Valid TaskTagBulkRequest request) {
+        return taskService.linkTags(request.taskIds(), request.tagIds());
+    }
+
+    @DeleteMapping("/tags/bulk")
+    @Operation(summary = "Удалить теги у задач пакетом",
+            description = "Удаляет каждый тег у каждой задачи одним запросом к базе. "
+                    + "Возвращает количество удаленных связей")
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", description = "Теги удалены"),
+            @ApiResponse(responseCode = "400", description = "Некорректные данные"),
+            @ApiResponse(responseCode = "404", description = "Задачи или теги не найдены")
+    })
+    public TaskTagBulkResponse unlinkTags(@RequestBody @Valid TaskTagBulkRequest request) {
+        return taskService.unlinkTags(request.taskIds(), request.tagIds());
+    }
+
     @PostMapping("/{task_id}/{tag_id}")
     @Operation(summary = "Добавить тег к задаче")
     @ApiResponses({
@@ -175,4 +375,37 @@ public class TaskController {
             @PathVariable Long tag_id) {
         return taskService.removeTagFromTask(task_id, tag_id);
     }
-}
\ No newline at end of file
+
+    /**
+     * Сильная метка из версии задачи и состояния её тегов: имена и счетчики тегов входят в ответ,
+     * но меняются без увеличения версии задачи. If-Match сравнивает метки строго, слабые метки с ним не совпадают
+     */
+    private static String versionTag(TaskResponse task) {
+        int tagsHash = task.tags().stream()
+                .sorted(Comparator.comparing(TagResponse::id))
+                .toList()
+                .hashCode();
+        return "\"" + task.version() + "-" + Integer.toHexString(tagsHash) + "\"";
+    }
+
+    /**
+     * Версия из If-Match: null без заголовка или для *, иначе ровно одна сильная метка.
+     * Изменение проверяет только версию задачи, часть метки после дефиса с состоянием тегов не сравнивается
+     */
+    private static Long expectedVersion(String ifMatch) {
+        if (ifMatch == null || ifMatch.isBlank() || "*".equals(ifMatch.trim())) {
+            return null;
+        }
+        String tag = ifMatch.trim();
+        if (tag.length() < 3 || !tag.startsWith("\"") || !tag.endsWith("\"")) {
+            throw new PreconditionFailedException("If-Match должен содержать одну сильную метку версии задачи");
+        }
+        String value = tag.substring(1, tag.length() - 1);
+        int separator = value.indexOf('-');
+        try {
+            return Long.parseLong(separator < 0 ? value : value.substring(0, separator));
+        } catch (NumberFormatException e) {
+            throw new PreconditionFailedException("If-Match должен содержать одну сильную метку версии задачи");
+        }
+    }
+}
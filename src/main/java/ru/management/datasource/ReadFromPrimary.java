@@ -0,0 +1,16 @@
+package ru.management.datasource;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Чтение только из основной базы. Нужно методам, результат которых попадает в кэш
+ * или отдается под версией данных из ETag: устаревшее состояние из отстающей реплики
+ * оставалось бы в кэше или у клиента до следующего изменения
+ */
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface ReadFromPrimary {
+}
@@ -0,0 +1,35 @@
+package ru.management.datasource;
+
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+
+/**
+ * Обработка аннотации @ReadFromPrimary. Выполняется снаружи транзакции и кэша,
+ * поэтому признак выставлен до первого запроса, по которому ReplicaRoutingDataSource выбирает пул
+ */
+@Aspect
+@Order(Ordered.HIGHEST_PRECEDENCE)
+public class ReadFromPrimaryAspect {
+
+    private static final ThreadLocal<Boolean> PRIMARY = new ThreadLocal<>();
+
+    @Around("@annotation(ru.management.datasource.ReadFromPrimary)")
+    public Object readFromPrimary(ProceedingJoinPoint joinPoint) throws Throwable {
+        if (PRIMARY.get() != null) {
+            return joinPoint.proceed();
+        }
+        PRIMARY.set(Boolean.TRUE);
+        try {
+            return joinPoint.proceed();
+        } finally {
+            PRIMARY.remove();
+        }
+    }
+
+    static boolean isPrimaryRequired() {
+        return PRIMARY.get() != null;
+    }
+}
@@ -0,0 +1,57 @@
+package ru.management.datasource;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.security.authentication.AnonymousAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.transaction.event.TransactionalEventListener;
+import ru.management.dto.change.ChangeEvent;
+
+import java.time.Duration;
+import java.util.Optional;
+
+/**
+ * Привязка чтения к основной базе на короткое время после изменения данных пользователем,
+ * чтобы он не получил из отстающей реплики состояние до своей же записи.
+ * API без серверных сессий, поэтому сессией считается аутентифицированный пользователь
+ */
+public class ReadYourWritesTracker {
+
+    private final Cache<String, Boolean> recentWriters;
+
+    public ReadYourWritesTracker(Duration window, long maximumSize) {
+        this.recentWriters = Caffeine.newBuilder()
+                .expireAfterWrite(window)
+                .maximumSize(maximumSize)
+                .build();
+    }
+
+    /**
+     * Запомнить пользователя после фиксации изменяющей транзакции
+     *
+     * @param event - изменение
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onChange(ChangeEvent event) {
+        currentUser().ifPresent(user -> recentWriters.put(user, Boolean.TRUE));
+    }
+
+    /**
+     * Проверить, изменял ли текущий пользователь данные в пределах окна
+     *
+     * @return - true, если чтение нужно выполнить в основной базе
+     */
+    public boolean hasRecentWrite() {
+        return currentUser().map(recentWriters::getIfPresent).isPresent();
+    }
+
+    private Optional<String> currentUser() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication == null || !authentication.isAuthenticated()
+                || authentication instanceof AnonymousAuthenticationToken) {
+            return Optional.empty();
+        }
+        return Optional.of(authentication.getName());
+    }
+}
@@ -0,0 +1,60 @@
+package ru.management.datasource;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+
+/**
+ * Периодическая проверка отставания реплики. Пока отставание выше порога или проверка не удалась,
+ * чтение идет в основную базу. До первой успешной проверки реплика считается недоступной
+ */
+@Slf4j
+public class ReplicaLagMonitor {
+
+    private final JdbcTemplate replicaJdbcTemplate;
+    private final String lagQuery;
+    private final double maxLagSeconds;
+
+    private volatile double lagSeconds = Double.NaN;
+    private volatile boolean replicaAvailable;
+
+    public ReplicaLagMonitor(DataSource replica, String lagQuery, Duration maxLag, MeterRegistry meterRegistry) {
+        this.replicaJdbcTemplate = new JdbcTemplate(replica);
+        this.lagQuery = lagQuery;
+        this.maxLagSeconds = maxLag.toMillis() / 1000.0;
+        Gauge.builder("datasource.replica.lag", this, monitor -> monitor.lagSeconds)
+                .baseUnit("seconds")
+                .register(meterRegistry);
+        Gauge.builder("datasource.replica.available", this, monitor -> monitor.replicaAvailable ? 1 : 0)
+                .register(meterRegistry);
+    }
+
+    @Scheduled(fixedDelayString = "${datasource-routing.lag-check-interval}")
+    public void check() {
+        try {
+            Double lag = replicaJdbcTemplate.queryForObject(lagQuery, Double.class);
+            lagSeconds = lag == null ? 0 : lag;
+            boolean available = lagSeconds <= maxLagSeconds;
+            if (available != replicaAvailable) {
+                log.info("Чтение из реплики {}, отставание {} с", available ? "включено" : "отключено", lagSeconds);
+            }
+            replicaAvailable = available;
+        } catch (DataAccessException e) {
+            if (replicaAvailable) {
+                log.warn("Реплика недоступна, чтение переключено на основную базу: {}", e.getMessage());
+            }
+            lagSeconds = Double.NaN;
+            replicaAvailable = false;
+        }
+    }
+
+    public boolean isReplicaAvailable() {
+        return replicaAvailable;
+    }
+}
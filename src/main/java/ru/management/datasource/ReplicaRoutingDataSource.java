@@ -0,0 +1,45 @@
+package ru.management.datasource;
+
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.util.Map;
+
+/**
+ * Выбор пула соединений для транзакции: транзакции только на чтение идут в реплику,
+ * если её отставание в пределах порога, пользователь недавно ничего не изменял и метод не помечен @ReadFromPrimary,
+ * остальные - в основную базу.
+ * Флаг транзакции выставляется после её начала, поэтому источник нужно оборачивать
+ * в LazyConnectionDataSourceProxy, который берет соединение только перед первым запросом
+ */
+public class ReplicaRoutingDataSource extends AbstractRoutingDataSource {
+
+    enum Route {
+        PRIMARY,
+        REPLICA
+    }
+
+    private final ReplicaLagMonitor replicaLagMonitor;
+    private final ReadYourWritesTracker readYourWritesTracker;
+
+    public ReplicaRoutingDataSource(DataSource primary, DataSource replica,
+                                    ReplicaLagMonitor replicaLagMonitor, ReadYourWritesTracker readYourWritesTracker) {
+        this.replicaLagMonitor = replicaLagMonitor;
+        this.readYourWritesTracker = readYourWritesTracker;
+        setTargetDataSources(Map.of(Route.PRIMARY, primary, Route.REPLICA, replica));
+        setDefaultTargetDataSource(primary);
+        afterPropertiesSet();
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        if (TransactionSynchronizationManager.isCurrentTransactionReadOnly()
+                && replicaLagMonitor.isReplicaAvailable()
+                && !ReadFromPrimaryAspect.isPrimaryRequired()
+                && !readYourWritesTracker.hasRecentWrite()) {
+            return Route.REPLICA;
+        }
+        return Route.PRIMARY;
+    }
+}
@@ -0,0 +1,28 @@
+package ru.management.dto.change;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import ru.management.enums.ChangeType;
+
+public record ChangeEvent(
+        @Schema(description = "Тип изменения", example = "TASK_UPDATED")
+        ChangeType type,
+
+        @Schema(description = "ID задачи", example = "1")
+        Long taskId,
+
+        @Schema(description = "ID тега", example = "1")
+        Long tagId
+) {
+
+    public static ChangeEvent task(ChangeType type, Long taskId) {
+        return new ChangeEvent(type, taskId, null);
+    }
+
+    public static ChangeEvent tag(ChangeType type, Long tagId) {
+        return new ChangeEvent(type, null, tagId);
+    }
+
+    public static ChangeEvent link(ChangeType type, Long taskId, Long tagId) {
+        return new ChangeEvent(type, taskId, tagId);
+    }
+}
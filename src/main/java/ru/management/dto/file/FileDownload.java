@@ -0,0 +1,24 @@
+package ru.management.dto.file;
+
+import org.springframework.core.io.Resource;
+import org.springframework.http.MediaType;
+
+import java.time.Instant;
+
+/**
+ * Файл задачи для отдачи клиенту
+ *
+ * @param resource     - содержимое файла, читается потоком при записи ответа
+ * @param filename     - исходное имя файла
+ * @param contentType  - тип содержимого
+ * @param eTag         - тег версии содержимого
+ * @param lastModified - время последнего изменения файла
+ */
+public record FileDownload(
+        Resource resource,
+        String filename,
+        MediaType contentType,
+        String eTag,
+        Instant lastModified
+) {
+}
@@ -0,0 +1,12 @@
+package ru.management.dto.tag;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+public record TagDeleteResponse(
+        @Schema(description = "ID удаленного тега", example = "1")
+        Long tagId,
+
+        @Schema(description = "Количество удаленных задач", example = "42")
+        int deletedTasks
+) {
+}
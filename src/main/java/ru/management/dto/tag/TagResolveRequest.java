@@ -0,0 +1,17 @@
+package ru.management.dto.tag;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Pattern;
+import jakarta.validation.constraints.Size;
+
+import java.util.List;
+
+public record TagResolveRequest(
+        @Schema(description = "Имена тегов", example = "[\"#backend\", \"#frontend\"]")
+        @NotEmpty
+        @Size(max = 1000, message = "За один запрос можно получить не более 1000 тегов")
+        List<@Size(min = 2, max = 50, message = "Длина тега должна быть от 2 до 50 символов")
+        @Pattern(regexp = "#.+", message = "Имя тега должно начинаться с символа #") String> names
+) {
+}
@@ -0,0 +1,15 @@
+package ru.management.dto.tag;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+public record TagResolveResponse(
+        @Schema(description = "ID тега", example = "1")
+        Long id,
+
+        @Schema(description = "Название тега", example = "#backend")
+        String name,
+
+        @Schema(description = "Тег создан этим запросом", example = "false")
+        boolean created
+) {
+}
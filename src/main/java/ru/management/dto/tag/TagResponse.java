@@ -7,6 +7,9 @@ public record TagResponse(
         Long id,
 
         @Schema(description = "Название тега", example = "backend")
-        String name
+        String name,
+
+        @Schema(description = "Количество задач с тегом", example = "3")
+        int taskCount
 ) {
 }
\ No newline at end of file
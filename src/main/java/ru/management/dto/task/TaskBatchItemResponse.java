@@ -0,0 +1,28 @@
+package ru.management.dto.task;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import ru.management.entity.exception.Violation;
+
+import java.util.List;
+
+public record TaskBatchItemResponse(
+        @Schema(description = "Порядковый номер задачи в запросе", example = "0")
+        int index,
+
+        @Schema(description = "Задача создана", example = "true")
+        boolean created,
+
+        @Schema(description = "Созданная задача")
+        TaskResponse task,
+
+        @Schema(description = "Ошибки валидации задачи")
+        List<Violation> violations
+) {
+    public static TaskBatchItemResponse created(int index, TaskResponse task) {
+        return new TaskBatchItemResponse(index, true, task, List.of());
+    }
+
+    public static TaskBatchItemResponse rejected(int index, List<Violation> violations) {
+        return new TaskBatchItemResponse(index, false, null, violations);
+    }
+}
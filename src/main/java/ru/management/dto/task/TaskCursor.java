@@ -0,0 +1,50 @@
+package ru.management.dto.task;
+
+import ru.management.entity.Task;
+import ru.management.entity.exception.InvalidCursorException;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+
+/**
+ * Позиция в списке задач, отсортированном по (scheduled_date, id).
+ * Задачи без даты идут в конце списка и упорядочены по id
+ *
+ * @param scheduledDate - дата последней выданной задачи (null для задач без даты)
+ * @param id            - id последней выданной задачи
+ */
+public record TaskCursor(LocalDateTime scheduledDate, Long id) {
+
+    private static final String SEPARATOR = ":";
+
+    public static TaskCursor of(Task task) {
+        return new TaskCursor(task.getScheduledDate(), task.getId());
+    }
+
+    /**
+     * Разобрать непрозрачный курсор, выданный клиенту
+     *
+     * @param token - курсор из запроса
+     * @return - позиция в списке задач
+     */
+    public static TaskCursor decode(String token) {
+        try {
+            String value = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            String[] parts = value.split(SEPARATOR, 2);
+            if (parts.length != 2) {
+                throw new InvalidCursorException("Некорректный курсор: " + token);
+            }
+            LocalDateTime scheduledDate = parts[1].isEmpty() ? null : LocalDateTime.parse(parts[1]);
+            return new TaskCursor(scheduledDate, Long.parseLong(parts[0]));
+        } catch (IllegalArgumentException | DateTimeParseException e) {
+            throw new InvalidCursorException("Некорректный курсор: " + token);
+        }
+    }
+
+    public String encode() {
+        String value = id + SEPARATOR + (scheduledDate == null ? "" : scheduledDate.toString());
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(value.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,18 @@
+package ru.management.dto.task;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import ru.management.enums.TaskPriority;
+
+import java.time.LocalDate;
+
+public record TaskDayStatsResponse(
+        @Schema(description = "День", example = "2025-07-01")
+        LocalDate day,
+
+        @Schema(description = "Приоритет задачи", example = "IMPORTANT")
+        TaskPriority priority,
+
+        @Schema(description = "Количество задач", example = "12")
+        long count
+) {
+}
@@ -24,6 +24,9 @@ public record TaskResponse(
         TaskPriority priority,
 
         @Schema(description = "Теги задачи", example = "Отправить офер кандидату")
-        Set<TagResponse> tags
+        Set<TagResponse> tags,
+
+        @Schema(description = "Версия задачи для заголовка If-Match", example = "3")
+        Long version
 ) {
 }
\ No newline at end of file
@@ -0,0 +1,17 @@
+package ru.management.dto.task;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+import java.util.List;
+
+public record TaskScrollResponse(
+        @Schema(description = "Задачи текущей порции")
+        List<TaskResponse> content,
+
+        @Schema(description = "Курсор следующей порции, отсутствует на последней порции", example = "MTI6MjAyNS0wNy0wMVQxMDo0MQ")
+        String nextCursor,
+
+        @Schema(description = "Общее количество задач, только при запросе withTotal", example = "1024")
+        Long totalElements
+) {
+}
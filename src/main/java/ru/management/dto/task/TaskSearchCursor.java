@@ -0,0 +1,41 @@
+package ru.management.dto.task;
+
+import ru.management.entity.exception.InvalidCursorException;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+/**
+ * Позиция в результатах поиска, отсортированных по (rank DESC, id)
+ *
+ * @param rank - релевантность последней выданной задачи
+ * @param id   - id последней выданной задачи
+ */
+public record TaskSearchCursor(float rank, Long id) {
+
+    private static final String SEPARATOR = ":";
+
+    /**
+     * Разобрать непрозрачный курсор, выданный клиенту
+     *
+     * @param token - курсор из запроса
+     * @return - позиция в результатах поиска
+     */
+    public static TaskSearchCursor decode(String token) {
+        try {
+            String value = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            String[] parts = value.split(SEPARATOR, 2);
+            if (parts.length != 2) {
+                throw new InvalidCursorException("Некорректный курсор: " + token);
+            }
+            return new TaskSearchCursor(Float.parseFloat(parts[1]), Long.parseLong(parts[0]));
+        } catch (IllegalArgumentException e) {
+            throw new InvalidCursorException("Некорректный курсор: " + token);
+        }
+    }
+
+    public String encode() {
+        String value = id + SEPARATOR + rank;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(value.getBytes(StandardCharsets.UTF_8));
+    }
+}
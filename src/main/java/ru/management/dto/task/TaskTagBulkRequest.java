@@ -0,0 +1,21 @@
+package ru.management.dto.task;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+
+import java.util.Set;
+
+public record TaskTagBulkRequest(
+        @Schema(description = "ID задач", example = "[1, 2, 3]")
+        @NotEmpty
+        @Size(max = 10000, message = "За один запрос можно изменить не более 10000 задач")
+        Set<@NotNull Long> taskIds,
+
+        @Schema(description = "ID тегов", example = "[1, 2]")
+        @NotEmpty
+        @Size(max = 100, message = "За один запрос можно передать не более 100 тегов")
+        Set<@NotNull Long> tagIds
+) {
+}
@@ -0,0 +1,9 @@
+package ru.management.dto.task;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+public record TaskTagBulkResponse(
+        @Schema(description = "Количество добавленных или удаленных связей задач с тегами", example = "42")
+        int affectedLinks
+) {
+}
@@ -0,0 +1,74 @@
+package ru.management.entity;
+
+import jakarta.persistence.Entity;
+import jakarta.persistence.Table;
+import jakarta.persistence.Id;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Column;
+import lombok.NoArgsConstructor;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.Setter;
+import lombok.Builder;
+
+import java.time.LocalDateTime;
+import java.util.Objects;
+
+@NoArgsConstructor
+@AllArgsConstructor
+@Getter
+@Setter
+@Entity
+@Table(name = "attachments")
+@Builder
+public class Attachment {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "task_id", nullable = false)
+    private Long taskId;
+
+    @Column(name = "storage_key", nullable = false)
+    private String storageKey;
+
+    @Column(name = "original_filename", nullable = false)
+    private String originalFilename;
+
+    @Column(name = "file_size", nullable = false)
+    private long size;
+
+    @Column(name = "content_type")
+    private String contentType;
+
+    @Column(name = "checksum", nullable = false)
+    private String checksum;
+
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt;
+
+    @Override
+    public boolean equals(Object o) {
+        if (o == null || getClass() != o.getClass()) return false;
+        Attachment attachment = (Attachment) o;
+        return Objects.equals(id, attachment.id) && Objects.equals(storageKey, attachment.storageKey);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(id, storageKey);
+    }
+
+    @Override
+    public String toString() {
+        return "Attachment{"
+                + "id=" + id
+                + ", taskId=" + taskId
+                + ", storageKey='" + storageKey + '\''
+                + ", originalFilename='" + originalFilename + '\''
+                + ", size=" + size
+                + '}';
+    }
+}
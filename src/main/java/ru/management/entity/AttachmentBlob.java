@@ -0,0 +1,61 @@
+package ru.management.entity;
+
+import jakarta.persistence.Entity;
+import jakarta.persistence.Table;
+import jakarta.persistence.Id;
+import jakarta.persistence.Column;
+import lombok.NoArgsConstructor;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.Setter;
+import lombok.Builder;
+
+import java.time.LocalDateTime;
+import java.util.Objects;
+
+/**
+ * Уникальное содержимое вложений, хранится один раз на контрольную сумму
+ */
+@NoArgsConstructor
+@AllArgsConstructor
+@Getter
+@Setter
+@Entity
+@Table(name = "attachment_blobs")
+@Builder
+public class AttachmentBlob {
+
+    @Id
+    @Column(name = "checksum", nullable = false)
+    private String checksum;
+
+    @Column(name = "file_size", nullable = false)
+    private long size;
+
+    @Column(name = "ref_count", nullable = false)
+    private int refCount;
+
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt;
+
+    @Override
+    public boolean equals(Object o) {
+        if (o == null || getClass() != o.getClass()) return false;
+        AttachmentBlob blob = (AttachmentBlob) o;
+        return Objects.equals(checksum, blob.checksum);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hashCode(checksum);
+    }
+
+    @Override
+    public String toString() {
+        return "AttachmentBlob{"
+                + "checksum='" + checksum + '\''
+                + ", size=" + size
+                + ", refCount=" + refCount
+                + '}';
+    }
+}
@@ -14,8 +14,12 @@ import lombok.AllArgsConstructor;
 import lombok.Getter;
 import lombok.Setter;
 import lombok.Builder;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.hibernate.annotations.ColumnDefault;
 import org.hibernate.annotations.OnDelete;
 import org.hibernate.annotations.OnDeleteAction;
+import ru.management.config.CacheNames;
 
 import java.util.List;
 import java.util.Objects;
@@ -27,6 +31,7 @@ import java.util.Objects;
 @Entity
 @Table(name = "tags")
 @Builder
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = CacheNames.TAG_REGION)
 public class Tag {
 
     @Id
@@ -36,6 +41,14 @@ public class Tag {
     @Column(name = "name", nullable = false, unique = true)
     private String name;
 
+    /**
+     * Количество задач с тегом, изменяется только запросами репозитория.
+     * Такие запросы не видны кэшу второго уровня, тег очищается в CacheEvictionService
+     */
+    @ColumnDefault("0")
+    @Column(name = "task_count", nullable = false, insertable = false, updatable = false)
+    private int taskCount;
+
     @ManyToMany(mappedBy = "tags", cascade = {CascadeType.DETACH, CascadeType.MERGE, CascadeType.PERSIST, CascadeType.REFRESH}, fetch = FetchType.LAZY)
     @OnDelete(action = OnDeleteAction.CASCADE)
     private List<Task> tasks;
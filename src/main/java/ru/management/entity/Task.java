@@ -6,18 +6,22 @@ import jakarta.persistence.Id;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.Column;
-import jakarta.persistence.Enumerated;
-import jakarta.persistence.EnumType;
+import jakarta.persistence.Convert;
 import jakarta.persistence.ManyToMany;
 import jakarta.persistence.CascadeType;
 import jakarta.persistence.FetchType;
 import jakarta.persistence.JoinTable;
 import jakarta.persistence.JoinColumn;
+import jakarta.persistence.SequenceGenerator;
+import jakarta.persistence.Version;
 import lombok.NoArgsConstructor;
 import lombok.AllArgsConstructor;
 import lombok.Getter;
 import lombok.Setter;
 import lombok.Builder;
+import org.hibernate.annotations.BatchSize;
+import org.hibernate.annotations.DynamicUpdate;
+import ru.management.entity.converter.TaskPriorityConverter;
 import ru.management.enums.TaskPriority;
 
 import java.time.LocalDateTime;
@@ -31,10 +35,12 @@ import java.util.Set;
 @Entity
 @Table(name = "tasks")
 @Builder
+@DynamicUpdate
 public class Task {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "tasks_id_seq")
+    @SequenceGenerator(name = "tasks_id_seq", sequenceName = "tasks_id_seq", allocationSize = 50)
     private Long id;
 
     @Column(name = "name", nullable = false)
@@ -46,8 +52,11 @@ public class Task {
     @Column(name = "scheduled_date")
     private LocalDateTime scheduledDate;
 
-    @Enumerated(EnumType.STRING)
-    @Column(name = "priority", nullable = false)
+    /**
+     * Хранится числовым уровнем, чтобы сортировка шла по важности, а не по имени
+     */
+    @Convert(converter = TaskPriorityConverter.class)
+    @Column(name = "priority_level", nullable = false)
     private TaskPriority priority;
 
     @ManyToMany(cascade = {CascadeType.PERSIST, CascadeType.MERGE}, fetch = FetchType.LAZY)
@@ -56,8 +65,17 @@ public class Task {
             joinColumns = @JoinColumn(name = "task_id"),
             inverseJoinColumns = @JoinColumn(name = "tag_id")
     )
+    @BatchSize(size = 100)
     private Set<Tag> tags;
 
+    /**
+     * Версия для оптимистичной блокировки: обновление проверяет её в условии WHERE,
+     * параллельное изменение той же задачи завершится ошибкой вместо потери данных
+     */
+    @Version
+    @Column(name = "version", nullable = false)
+    private Long version;
+
     @Override
     public boolean equals(Object o) {
         if (o == null || getClass() != o.getClass()) return false;
@@ -0,0 +1,22 @@
+package ru.management.entity.converter;
+
+import jakarta.persistence.AttributeConverter;
+import jakarta.persistence.Converter;
+import ru.management.enums.TaskPriority;
+
+/**
+ * Преобразование приоритета задачи в уровень SMALLINT и обратно
+ */
+@Converter
+public class TaskPriorityConverter implements AttributeConverter<TaskPriority, Short> {
+
+    @Override
+    public Short convertToDatabaseColumn(TaskPriority priority) {
+        return priority == null ? null : (short) priority.getPriority();
+    }
+
+    @Override
+    public TaskPriority convertToEntityAttribute(Short level) {
+        return level == null ? null : TaskPriority.fromLevel(level);
+    }
+}
@@ -0,0 +1,10 @@
+package ru.management.entity.exception;
+
+/**
+ * Обработка ошибок курсора постраничной выдачи
+ */
+public class InvalidCursorException extends RuntimeException {
+    public InvalidCursorException(String message) {
+        super(message);
+    }
+}
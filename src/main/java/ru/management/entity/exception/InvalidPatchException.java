@@ -0,0 +1,10 @@
+package ru.management.entity.exception;
+
+/**
+ * Обработка ошибок тела частичного обновления
+ */
+public class InvalidPatchException extends RuntimeException {
+    public InvalidPatchException(String message) {
+        super(message);
+    }
+}
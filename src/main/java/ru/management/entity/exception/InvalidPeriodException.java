@@ -0,0 +1,10 @@
+package ru.management.entity.exception;
+
+/**
+ * Обработка ошибок периода выборки
+ */
+public class InvalidPeriodException extends RuntimeException {
+    public InvalidPeriodException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,10 @@
+package ru.management.entity.exception;
+
+/**
+ * Обработка ошибок условных запросов
+ */
+public class PreconditionFailedException extends RuntimeException {
+    public PreconditionFailedException(String message) {
+        super(message);
+    }
+}
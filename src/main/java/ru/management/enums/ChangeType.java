@@ -0,0 +1,22 @@
+package ru.management.enums;
+
+/**
+ * Тип изменения в ленте изменений
+ */
+public enum ChangeType {
+    TASK_CREATED,
+    TASKS_CREATED,
+    TASK_UPDATED,
+    TASK_DELETED,
+    TAG_CREATED,
+    TAG_UPDATED,
+    TAG_DELETED,
+    TAG_LINKED,
+    TAG_UNLINKED,
+    TAGS_LINKED,
+    TAGS_UNLINKED,
+    /**
+     * Пропущенные события недоступны, клиенту нужно перечитать данные
+     */
+    RESET
+}
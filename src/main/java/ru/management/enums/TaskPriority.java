@@ -12,4 +12,19 @@ public enum TaskPriority {
     TaskPriority(int priority) {
         this.priority = priority;
     }
+
+    /**
+     * Получить приоритет по уровню
+     *
+     * @param level - уровень приоритета
+     * @return - приоритет
+     */
+    public static TaskPriority fromLevel(int level) {
+        for (TaskPriority value : values()) {
+            if (value.priority == level) {
+                return value;
+            }
+        }
+        throw new IllegalArgumentException("Неизвестный уровень приоритета: " + level);
+    }
 }
\ No newline at end of file
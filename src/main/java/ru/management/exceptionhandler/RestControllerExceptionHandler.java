@@ -1,13 +1,20 @@
 package ru.management.exceptionhandler;
 
 import jakarta.persistence.EntityNotFoundException;
+import jakarta.validation.ConstraintViolationException;
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.http.HttpStatus;
 import org.springframework.web.bind.MethodArgumentNotValidException;
 import org.springframework.web.bind.annotation.*;
+import ru.management.entity.exception.InvalidCursorException;
+import ru.management.entity.exception.InvalidPatchException;
+import ru.management.entity.exception.InvalidPeriodException;
+import ru.management.entity.exception.PreconditionFailedException;
 import ru.management.entity.exception.TagExistException;
 import ru.management.entity.exception.ValidationErrorResponse;
 import ru.management.entity.exception.Violation;
 
+import java.io.FileNotFoundException;
 import java.util.List;
 
 /**
@@ -47,6 +54,89 @@ public class RestControllerExceptionHandler {
         return new ValidationErrorResponse(List.of(new Violation("tagNameError", e.getMessage())));
     }
 
+    /**
+     * Обрабатывает ConstraintViolationException
+     *
+     * @param e - проброшенное исключение
+     * @return - статус 400 и сообщение об ошибке
+     */
+    @ResponseBody
+    @ExceptionHandler(ConstraintViolationException.class)
+    @ResponseStatus(HttpStatus.BAD_REQUEST)
+    public ValidationErrorResponse onConstraintViolationException(ConstraintViolationException e) {
+        List<Violation> violations = e.getConstraintViolations()
+                .stream()
+                .map(violation -> new Violation(violation.getPropertyPath().toString(), violation.getMessage()))
+                .toList();
+        return new ValidationErrorResponse(violations);
+    }
+
+    /**
+     * Обрабатывает InvalidCursorException
+     *
+     * @param e - проброшенное исключение
+     * @return - статус 400 и сообщение об ошибке
+     */
+    @ResponseBody
+    @ExceptionHandler(InvalidCursorException.class)
+    @ResponseStatus(HttpStatus.BAD_REQUEST)
+    public ValidationErrorResponse onInvalidCursorException(InvalidCursorException e) {
+        return new ValidationErrorResponse(List.of(new Violation("cursor", e.getMessage())));
+    }
+
+    /**
+     * Обрабатывает InvalidPeriodException
+     *
+     * @param e - проброшенное исключение
+     * @return - статус 400 и сообщение об ошибке
+     */
+    @ResponseBody
+    @ExceptionHandler(InvalidPeriodException.class)
+    @ResponseStatus(HttpStatus.BAD_REQUEST)
+    public ValidationErrorResponse onInvalidPeriodException(InvalidPeriodException e) {
+        return new ValidationErrorResponse(List.of(new Violation("period", e.getMessage())));
+    }
+
+    /**
+     * Обрабатывает InvalidPatchException
+     *
+     * @param e - проброшенное исключение
+     * @return - статус 400 и сообщение об ошибке
+     */
+    @ResponseBody
+    @ExceptionHandler(InvalidPatchException.class)
+    @ResponseStatus(HttpStatus.BAD_REQUEST)
+    public ValidationErrorResponse onInvalidPatchException(InvalidPatchException e) {
+        return new ValidationErrorResponse(List.of(new Violation("patch", e.getMessage())));
+    }
+
+    /**
+     * Обрабатывает PreconditionFailedException
+     *
+     * @param e - проброшенное исключение
+     * @return - статус 412 и сообщение об ошибке
+     */
+    @ResponseBody
+    @ExceptionHandler(PreconditionFailedException.class)
+    @ResponseStatus(HttpStatus.PRECONDITION_FAILED)
+    public ValidationErrorResponse onPreconditionFailedException(PreconditionFailedException e) {
+        return new ValidationErrorResponse(List.of(new Violation("If-Match", e.getMessage())));
+    }
+
+    /**
+     * Обрабатывает OptimisticLockingFailureException
+     *
+     * @param e - проброшенное исключение
+     * @return - статус 409 и сообщение об ошибке
+     */
+    @ResponseBody
+    @ExceptionHandler(OptimisticLockingFailureException.class)
+    @ResponseStatus(HttpStatus.CONFLICT)
+    public ValidationErrorResponse onOptimisticLockingFailureException(OptimisticLockingFailureException e) {
+        return new ValidationErrorResponse(List.of(new Violation("version",
+                "Задача изменена параллельным запросом, получите актуальную версию и повторите изменение")));
+    }
+
     /**
      * Обрабатывает EntityNotFoundException
      *
@@ -59,4 +149,17 @@ public class RestControllerExceptionHandler {
     public ValidationErrorResponse onEntityNotFoundException(EntityNotFoundException e) {
         return new ValidationErrorResponse(List.of(new Violation("entityError", e.getMessage())));
     }
+
+    /**
+     * Обрабатывает FileNotFoundException
+     *
+     * @param e - проброшенное исключение
+     * @return - статус 404 и сообщение об ошибке
+     */
+    @ResponseBody
+    @ExceptionHandler(FileNotFoundException.class)
+    @ResponseStatus(HttpStatus.NOT_FOUND)
+    public ValidationErrorResponse onFileNotFoundException(FileNotFoundException e) {
+        return new ValidationErrorResponse(List.of(new Violation("fileError", e.getMessage())));
+    }
 }
\ No newline at end of file
@@ -0,0 +1,34 @@
+package ru.management.job;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import ru.management.service.impl.FileSavedService;
+
+/**
+ * Сверка ссылок на содержимое вложений и удаление содержимого, на которое никто не ссылается.
+ * Ссылки расходятся при массовом удалении задач вместе с тегом
+ */
+@Component
+@Slf4j
+@RequiredArgsConstructor
+public class AttachmentBlobCleanupJob {
+
+    private final FileSavedService fileSavedService;
+
+    @Scheduled(cron = "${upload.blob-cleanup-cron}")
+    public void cleanup() {
+        int repaired = fileSavedService.reconcileBlobReferences();
+        if (repaired > 0) {
+            log.warn("Исправлены счетчики ссылок на файлы вложений: {}", repaired);
+        }
+        long deleted = fileSavedService.findUnreferencedBlobs()
+                .stream()
+                .filter(fileSavedService::deleteBlobIfUnreferenced)
+                .count();
+        if (deleted > 0) {
+            log.info("Удалены неиспользуемые файлы вложений: {}", deleted);
+        }
+    }
+}
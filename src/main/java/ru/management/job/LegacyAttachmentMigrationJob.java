@@ -0,0 +1,43 @@
+package ru.management.job;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.stereotype.Component;
+import ru.management.service.impl.FileSavedService;
+
+import java.nio.file.Path;
+import java.util.List;
+
+/**
+ * Перенос при старте файлов, сохраненных до появления таблицы вложений, в хранилище по контрольной сумме.
+ * После переноса отдача файла не просматривает каталог загрузок. Ошибка одного файла не останавливает запуск,
+ * файл останется на месте и будет перенесен при следующем старте
+ */
+@Component
+@Slf4j
+@RequiredArgsConstructor
+public class LegacyAttachmentMigrationJob implements ApplicationRunner {
+
+    private final FileSavedService fileSavedService;
+
+    @Override
+    public void run(ApplicationArguments args) {
+        List<Path> files = fileSavedService.findLegacyFiles();
+        if (files.isEmpty()) {
+            return;
+        }
+        int migrated = 0;
+        for (Path file : files) {
+            try {
+                if (fileSavedService.migrateLegacyFile(file)) {
+                    migrated++;
+                }
+            } catch (RuntimeException e) {
+                log.warn("Не удалось перенести файл {}: {}", file, e.getMessage());
+            }
+        }
+        log.info("Перенесены файлы вложений из каталога загрузок: {} из {}", migrated, files.size());
+    }
+}
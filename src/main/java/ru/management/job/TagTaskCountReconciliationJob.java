@@ -0,0 +1,36 @@
+package ru.management.job;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+import ru.management.repository.TagRepository;
+import ru.management.service.impl.CacheEvictionService;
+import ru.management.service.impl.DataVersionTracker;
+
+/**
+ * Сверка счетчиков задач у тегов с таблицей связей task_tags
+ */
+@Component
+@Slf4j
+@RequiredArgsConstructor
+public class TagTaskCountReconciliationJob {
+
+    private final TagRepository tagRepository;
+    private final CacheEvictionService cacheEvictionService;
+    private final DataVersionTracker dataVersionTracker;
+
+    @Transactional
+    @Scheduled(cron = "${tag.task-count.reconcile-cron}")
+    public void reconcile() {
+        int repaired = tagRepository.reconcileTaskCounts();
+        if (repaired > 0) {
+            log.warn("Исправлены счетчики задач у тегов: {}", repaired);
+            cacheEvictionService.evictTagsForTasks();
+            cacheEvictionService.clearTaskResponses();
+            cacheEvictionService.evictAllTags();
+            dataVersionTracker.markChanged();
+        }
+    }
+}
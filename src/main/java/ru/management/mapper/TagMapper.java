@@ -1,6 +1,7 @@
 package ru.management.mapper;
 
 import org.mapstruct.Mapper;
+import org.mapstruct.Mapping;
 import org.mapstruct.MappingConstants;
 import ru.management.dto.tag.TagCreateOrUpdateRequest;
 import ru.management.dto.tag.TagResponse;
@@ -15,6 +16,7 @@ import java.util.List;
 public interface TagMapper {
     TagResponse toDto(Tag tag);
 
+    @Mapping(target = "taskCount", ignore = true)
     Tag toEntity(TagCreateOrUpdateRequest tagCreateOrUpdateRequest);
 
     List<TagResponse> entityListToResponseList(List<Tag> tags);
@@ -1,6 +1,7 @@
 package ru.management.mapper;
 
 import org.mapstruct.Mapper;
+import org.mapstruct.Mapping;
 import org.mapstruct.MappingConstants;
 import ru.management.dto.task.TaskCreateOrUpdateRequest;
 import ru.management.dto.task.TaskResponse;
@@ -15,6 +16,7 @@ import java.util.List;
 public interface TaskMapper {
     TaskResponse toDto(Task task);
 
+    @Mapping(target = "version", ignore = true)
     Task toEntity(TaskCreateOrUpdateRequest taskCreateOrUpdateRequest);
 
     List<TaskResponse> entityListToResponseList(List<Task> tasks);
@@ -0,0 +1,54 @@
+package ru.management.metrics;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.io.IOException;
+import java.util.Optional;
+
+/**
+ * Запись статистики Hibernate по каждому запросу с тегами шаблона пути и метода.
+ * Для потоковой выгрузки учитывается только часть работы, выполненная в потоке запроса
+ */
+@RequiredArgsConstructor
+public class HibernateRequestMetricsFilter extends OncePerRequestFilter {
+
+    private static final double[] PERCENTILES = {0.5, 0.95, 0.99};
+
+    private final HibernateRequestStatistics statistics;
+    private final MeterRegistry meterRegistry;
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response,
+                                    FilterChain filterChain) throws ServletException, IOException {
+        statistics.begin();
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            HibernateRequestStatistics.Counts counts = statistics.end();
+            Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+            if (pattern != null) {
+                String uri = pattern.toString();
+                record("hibernate.request.statements", uri, request.getMethod(), counts.getStatements());
+                record("hibernate.request.entity.loads", uri, request.getMethod(), counts.getEntityLoads());
+                record("hibernate.request.collection.fetches", uri, request.getMethod(), counts.getCollectionFetches());
+            }
+        }
+    }
+
+    private void record(String name, String uri, String method, long value) {
+        DistributionSummary.builder(name)
+                .tag("uri", uri)
+                .tag("method", Optional.ofNullable(method).orElse("UNKNOWN"))
+                .publishPercentiles(PERCENTILES)
+                .register(meterRegistry)
+                .record(value);
+    }
+}
@@ -0,0 +1,101 @@
+package ru.management.metrics;
+
+import org.hibernate.boot.Metadata;
+import org.hibernate.boot.spi.BootstrapContext;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.event.service.spi.EventListenerRegistry;
+import org.hibernate.event.spi.EventType;
+import org.hibernate.event.spi.InitializeCollectionEvent;
+import org.hibernate.event.spi.InitializeCollectionEventListener;
+import org.hibernate.event.spi.PostLoadEvent;
+import org.hibernate.event.spi.PostLoadEventListener;
+import org.hibernate.integrator.spi.Integrator;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.hibernate.service.spi.SessionFactoryServiceRegistry;
+
+/**
+ * Подсчет SQL запросов, загрузок сущностей и коллекций в рамках текущего запроса.
+ * Общая статистика Hibernate копится на всё приложение и не показывает, какой endpoint дает нагрузку
+ */
+public class HibernateRequestStatistics implements StatementInspector, PostLoadEventListener,
+        InitializeCollectionEventListener, Integrator {
+
+    private static final ThreadLocal<Counts> COUNTS = new ThreadLocal<>();
+
+    /**
+     * Начать подсчет для текущего потока
+     */
+    public void begin() {
+        COUNTS.set(new Counts());
+    }
+
+    /**
+     * Завершить подсчет для текущего потока
+     *
+     * @return - накопленные значения
+     */
+    public Counts end() {
+        Counts counts = COUNTS.get();
+        COUNTS.remove();
+        return counts == null ? new Counts() : counts;
+    }
+
+    @Override
+    public String inspect(String sql) {
+        Counts counts = COUNTS.get();
+        if (counts != null) {
+            counts.statements++;
+        }
+        return sql;
+    }
+
+    @Override
+    public void onPostLoad(PostLoadEvent event) {
+        Counts counts = COUNTS.get();
+        if (counts != null) {
+            counts.entityLoads++;
+        }
+    }
+
+    @Override
+    public void onInitializeCollection(InitializeCollectionEvent event) {
+        Counts counts = COUNTS.get();
+        if (counts != null) {
+            counts.collectionFetches++;
+        }
+    }
+
+    @Override
+    public void integrate(Metadata metadata, BootstrapContext bootstrapContext,
+                          SessionFactoryImplementor sessionFactory) {
+        EventListenerRegistry registry = sessionFactory.getServiceRegistry().getService(EventListenerRegistry.class);
+        registry.appendListeners(EventType.POST_LOAD, this);
+        registry.appendListeners(EventType.INIT_COLLECTION, this);
+    }
+
+    @Override
+    public void disintegrate(SessionFactoryImplementor sessionFactory, SessionFactoryServiceRegistry serviceRegistry) {
+        // слушатели удаляются вместе с фабрикой сессий
+    }
+
+    /**
+     * Значения за один запрос
+     */
+    public static class Counts {
+        private long statements;
+        private long entityLoads;
+        private long collectionFetches;
+
+        public long getStatements() {
+            return statements;
+        }
+
+        public long getEntityLoads() {
+            return entityLoads;
+        }
+
+        public long getCollectionFetches() {
+            return collectionFetches;
+        }
+    }
+}
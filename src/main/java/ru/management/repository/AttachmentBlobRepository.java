@@ -0,0 +1,75 @@
+package ru.management.repository;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import ru.management.entity.AttachmentBlob;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Репозиторий уникального содержимого вложений
+ */
+@Repository
+public interface AttachmentBlobRepository extends JpaRepository<AttachmentBlob, String> {
+
+    /**
+     * Создать запись о содержимом или увеличить число ссылок на существующее
+     *
+     * @param checksum  - контрольная сумма SHA-256
+     * @param size      - размер содержимого
+     * @param createdAt - время загрузки
+     * @return - число ссылок после увеличения, 1 для нового содержимого
+     */
+    @Query(value = "INSERT INTO attachment_blobs(checksum, file_size, ref_count, created_at) "
+            + "VALUES (:checksum, :size, 1, :createdAt) "
+            + "ON CONFLICT (checksum) DO UPDATE SET ref_count = attachment_blobs.ref_count + 1 "
+            + "RETURNING ref_count", nativeQuery = true)
+    int acquire(@Param("checksum") String checksum,
+                @Param("size") long size,
+                @Param("createdAt") LocalDateTime createdAt);
+
+    /**
+     * Освободить ссылки вложений задачи перед её удалением
+     *
+     * @param taskId - id задачи
+     */
+    @Modifying
+    @Query(value = "UPDATE attachment_blobs SET ref_count = ref_count - "
+            + "(SELECT COUNT(*) FROM attachments a WHERE a.task_id = :taskId AND a.storage_key = attachment_blobs.checksum) "
+            + "WHERE checksum IN (SELECT storage_key FROM attachments WHERE task_id = :taskId)", nativeQuery = true)
+    void releaseByTaskId(@Param("taskId") Long taskId);
+
+    /**
+     * Пересчитать разошедшиеся счетчики ссылок по таблице вложений
+     *
+     * @return - количество исправленных записей
+     */
+    @Modifying
+    @Query(value = "UPDATE attachment_blobs SET ref_count = "
+            + "(SELECT COUNT(*) FROM attachments a WHERE a.storage_key = attachment_blobs.checksum) "
+            + "WHERE ref_count <> (SELECT COUNT(*) FROM attachments a WHERE a.storage_key = attachment_blobs.checksum)",
+            nativeQuery = true)
+    int reconcileRefCounts();
+
+    /**
+     * Получить содержимое, на которое не ссылается ни одно вложение
+     *
+     * @return - список контрольных сумм
+     */
+    @Query("SELECT b.checksum FROM AttachmentBlob b WHERE b.refCount <= 0")
+    List<String> findUnreferencedChecksums();
+
+    /**
+     * Удалить запись о содержимом, если на него по-прежнему нет ссылок
+     *
+     * @param checksum - контрольная сумма
+     * @return - 1, если запись удалена
+     */
+    @Modifying
+    @Query("DELETE FROM AttachmentBlob b WHERE b.checksum = :checksum AND b.refCount <= 0")
+    int deleteIfUnreferenced(@Param("checksum") String checksum);
+}
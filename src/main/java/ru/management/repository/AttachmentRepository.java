@@ -0,0 +1,22 @@
+package ru.management.repository;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+import ru.management.entity.Attachment;
+
+import java.util.Optional;
+
+/**
+ * Репозиторий вложений задач
+ */
+@Repository
+public interface AttachmentRepository extends JpaRepository<Attachment, Long> {
+
+    /**
+     * Получить последнее вложение задачи
+     *
+     * @param taskId - id задачи
+     * @return - вложение
+     */
+    Optional<Attachment> findFirstByTaskIdOrderByIdDesc(Long taskId);
+}
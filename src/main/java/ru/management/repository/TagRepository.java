@@ -1,11 +1,19 @@
 package ru.management.repository;
 
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import ru.management.config.CacheNames;
 import ru.management.entity.Tag;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 
 /**
  * Репозиторий тегов
@@ -14,18 +22,83 @@ import java.util.List;
 public interface TagRepository extends JpaRepository<Tag, Long> {
 
     /**
-     * Проверка на уникаольность тега
+     * Создать тег одним запросом, если тега с таким именем еще нет
      *
-     * @param name - новый тек
-     * @return - результат проверки (true / false)
+     * @param name - имя тега
+     * @return - id созданного тега, пусто если тег уже существует
      */
-    boolean existsByName(String name);
+    @Query(value = "INSERT INTO tags(name) VALUES (:name) ON CONFLICT (name) DO NOTHING RETURNING id", nativeQuery = true)
+    Optional<Long> insertIfAbsent(@Param("name") String name);
 
     /**
-     * Получить список всех тегов, у которых есть задачи
+     * Получить id тегов по именам, недостающие теги создаются в том же запросе
+     *
+     * @param names - имена тегов
+     * @return - теги с признаком создания
+     */
+    @Query(value = "WITH input(name) AS (SELECT DISTINCT unnest(CAST(:names AS TEXT[]))), "
+            + "inserted AS (INSERT INTO tags(name) SELECT name FROM input ON CONFLICT (name) DO NOTHING RETURNING id, name) "
+            + "SELECT i.id AS id, i.name AS name, TRUE AS created FROM inserted i "
+            + "UNION ALL "
+            + "SELECT t.id AS id, t.name AS name, FALSE AS created FROM tags t JOIN input ON input.name = t.name",
+            nativeQuery = true)
+    List<TagResolveRow> resolveByNames(@Param("names") String[] names);
+
+    /**
+     * Получить теги по именам
+     *
+     * @param names - имена тегов
+     * @return - найденные теги
+     */
+    List<Tag> findByNameIn(Collection<String> names);
+
+    @Query("SELECT t.id FROM Tag t WHERE t.id IN :ids")
+    List<Long> findExistingIds(@Param("ids") Collection<Long> ids);
+
+    /**
+     * Получить список всех тегов, у которых есть задачи. Результат хранится в кэше запросов
+     * до изменения таблицы tags через контекст или очистки региона в CacheEvictionService
      *
      * @return - список актуальных тегов
      */
-    @Query("SELECT t FROM Tag t WHERE SIZE(t.tasks) > 0")
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"),
+            @QueryHint(name = HibernateHints.HINT_CACHE_REGION, value = CacheNames.TAGS_FOR_TASKS_QUERY_REGION)
+    })
+    @Query("SELECT t FROM Tag t WHERE t.taskCount > 0")
     List<Tag> getAllTagsForTasks();
+
+    /**
+     * Изменить счетчик задач тега. Запрос синхронизируется только с таблицей связей,
+     * чтобы Hibernate не очищал весь регион тегов: измененный тег очищается в CacheEvictionService
+     *
+     * @param tagId - id тега
+     * @param delta - изменение счетчика
+     */
+    @Modifying
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "task_tags"))
+    @Query(value = "UPDATE tags SET task_count = task_count + :delta WHERE id = :tagId", nativeQuery = true)
+    void changeTaskCount(@Param("tagId") Long tagId, @Param("delta") int delta);
+
+    /**
+     * Уменьшить счетчики всех тегов задачи перед её удалением
+     *
+     * @param taskId - id задачи
+     */
+    @Modifying
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "task_tags"))
+    @Query(value = "UPDATE tags SET task_count = task_count - 1 "
+            + "WHERE id IN (SELECT tag_id FROM task_tags WHERE task_id = :taskId)", nativeQuery = true)
+    void decrementTaskCountForTask(@Param("taskId") Long taskId);
+
+    /**
+     * Пересчитать разошедшиеся счетчики задач по таблице связей
+     *
+     * @return - количество исправленных тегов
+     */
+    @Modifying
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "tags"))
+    @Query(value = "UPDATE tags SET task_count = (SELECT COUNT(*) FROM task_tags tt WHERE tt.tag_id = tags.id) "
+            + "WHERE task_count <> (SELECT COUNT(*) FROM task_tags tt WHERE tt.tag_id = tags.id)", nativeQuery = true)
+    int reconcileTaskCounts();
 }
@@ -0,0 +1,13 @@
+package ru.management.repository;
+
+/**
+ * Тег, полученный при разрешении имен
+ */
+public interface TagResolveRow {
+
+    Long getId();
+
+    String getName();
+
+    Boolean getCreated();
+}
@@ -1,13 +1,23 @@
 package ru.management.repository;
 
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import ru.management.dto.task.TaskDayStatsResponse;
 import ru.management.entity.Task;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
 
 /**
  * Репозиторий задач
@@ -15,10 +25,218 @@ import java.util.List;
 @Repository
 public interface TaskRepository extends JpaRepository<Task, Long> {
 
-    @Query("SELECT t FROM Task t WHERE t.scheduledDate BETWEEN :startDate AND :endDate ORDER BY t.priority DESC")
-    List<Task> findByTasksBetweenDateByPriorityDesc(@Param("startDate") LocalDateTime startDate,
+    String TASK_ROW = "SELECT new ru.management.repository.TaskRow("
+            + "t.id, t.name, t.description, t.scheduledDate, t.priority, t.version) ";
+
+    /**
+     * Страница задач без создания сущностей, теги выбираются отдельно по id задач
+     *
+     * @param pageable - параметры страницы
+     * @return - страница задач
+     */
+    @Query(value = TASK_ROW + "FROM Task t", countQuery = "SELECT COUNT(t) FROM Task t")
+    Page<TaskRow> findAllRows(Pageable pageable);
+
+    @Query(TASK_ROW + "FROM Task t JOIN t.tags tag WHERE tag.id = :tagId ORDER BY t.priority DESC")
+    List<TaskRow> findRowsByTagIdOrderByPriorityDesc(@Param("tagId") Long tagId);
+
+    @Query(TASK_ROW + "FROM Task t WHERE t.scheduledDate BETWEEN :startDate AND :endDate ORDER BY t.priority DESC")
+    List<TaskRow> findRowsBetweenDateByPriorityDesc(@Param("startDate") LocalDateTime startDate,
                                                     @Param("endDate") LocalDateTime endDate);
 
-    @Query("SELECT task FROM Task task JOIN task.tags tag WHERE tag.id = :tagId ORDER BY task.priority DESC")
-    List<Task> findTaskByTagIdOrderByPriorityByDesc(@Param("tagId")Long tagId);
+    /**
+     * Теги задач без создания сущностей
+     *
+     * @param taskIds - id задач
+     * @return - пары задача-тег
+     */
+    @Query("SELECT new ru.management.repository.TaskTagRow(t.id, tag.id, tag.name, tag.taskCount) "
+            + "FROM Task t JOIN t.tags tag WHERE t.id IN :taskIds ORDER BY t.id, tag.id")
+    List<TaskTagRow> findTagRowsByTaskIds(@Param("taskIds") Collection<Long> taskIds);
+
+    /**
+     * Потоковая выборка задач за период, без загрузки всего списка в память
+     *
+     * @param startDate - начало периода
+     * @param endDate   - конец периода
+     * @return - поток задач, должен быть закрыт внутри транзакции
+     */
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "100"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("SELECT t FROM Task t WHERE t.scheduledDate BETWEEN :startDate AND :endDate ORDER BY t.priority DESC")
+    Stream<Task> streamByTasksBetweenDateByPriorityDesc(@Param("startDate") LocalDateTime startDate,
+                                                        @Param("endDate") LocalDateTime endDate);
+
+    /**
+     * Полнотекстовый поиск по названию и описанию задачи с сортировкой по релевантности.
+     * Фильтры по тегу и периоду необязательны, позиция после (afterRank, afterId) задается курсором
+     *
+     * @param query     - поисковый запрос в синтаксисе websearch
+     * @param tagId     - id тега или null
+     * @param startDate - начало периода или null
+     * @param endDate   - конец периода или null
+     * @param afterRank - релевантность последней выданной задачи или null для первой порции
+     * @param afterId   - id последней выданной задачи
+     * @param limit     - размер порции
+     * @return - id задач и их релевантность
+     */
+    @Query(value = "SELECT s.id AS id, s.rank AS rank FROM ("
+            + "SELECT t.id, ts_rank(t.search_vector, q.query) AS rank "
+            + "FROM tasks t, websearch_to_tsquery('russian', :query) AS q(query) "
+            + "WHERE t.search_vector @@ q.query "
+            + "AND (CAST(:tagId AS BIGINT) IS NULL OR EXISTS "
+            + "(SELECT 1 FROM task_tags tt WHERE tt.task_id = t.id AND tt.tag_id = :tagId)) "
+            + "AND (CAST(:startDate AS TIMESTAMP) IS NULL OR t.scheduled_date >= :startDate) "
+            + "AND (CAST(:endDate AS TIMESTAMP) IS NULL OR t.scheduled_date <= :endDate)) s "
+            + "WHERE CAST(:afterRank AS REAL) IS NULL OR s.rank < :afterRank OR (s.rank = :afterRank AND s.id > :afterId) "
+            + "ORDER BY s.rank DESC, s.id LIMIT :limit",
+            nativeQuery = true)
+    List<TaskSearchHit> search(@Param("query") String query,
+                               @Param("tagId") Long tagId,
+                               @Param("startDate") LocalDateTime startDate,
+                               @Param("endDate") LocalDateTime endDate,
+                               @Param("afterRank") Float afterRank,
+                               @Param("afterId") Long afterId,
+                               @Param("limit") int limit);
+
+    /**
+     * Количество задач по дням и приоритетам, с необязательным фильтром по тегу
+     *
+     * @param startDate - начало периода включительно
+     * @param endDate   - конец периода не включительно
+     * @param tagId     - id тега или null
+     * @return - количество задач по дням и приоритетам
+     */
+    @Query("SELECT new ru.management.dto.task.TaskDayStatsResponse(CAST(t.scheduledDate AS LocalDate), t.priority, COUNT(t)) "
+            + "FROM Task t "
+            + "WHERE t.scheduledDate >= :startDate AND t.scheduledDate < :endDate "
+            + "AND (:tagId IS NULL OR EXISTS (SELECT 1 FROM Task tagged JOIN tagged.tags tag "
+            + "WHERE tagged = t AND tag.id = :tagId)) "
+            + "GROUP BY CAST(t.scheduledDate AS LocalDate), t.priority "
+            + "ORDER BY CAST(t.scheduledDate AS LocalDate), t.priority")
+    List<TaskDayStatsResponse> countByDayAndPriority(@Param("startDate") LocalDateTime startDate,
+                                                     @Param("endDate") LocalDateTime endDate,
+                                                     @Param("tagId") Long tagId);
+
+    /**
+     * Найти задачу с указанным тегом, у которой есть и другие теги
+     *
+     * @param tagId - id тега
+     * @return - id первой найденной задачи
+     */
+    @Query(value = "SELECT tt.task_id FROM task_tags tt WHERE tt.tag_id = :tagId AND EXISTS "
+            + "(SELECT 1 FROM task_tags other WHERE other.task_id = tt.task_id AND other.tag_id <> :tagId) LIMIT 1",
+            nativeQuery = true)
+    Optional<Long> findTaskIdWithOtherTags(@Param("tagId") Long tagId);
+
+    /**
+     * Удалить порцию задач с указанным тегом, связи с тегами удаляются каскадно.
+     * Запрос синхронизируется с таблицей задач, поэтому кэш второго уровня тегов не очищается
+     *
+     * @param tagId - id тега
+     * @param limit - размер порции
+     * @return - количество удаленных задач
+     */
+    @Modifying
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "tasks"))
+    @Query(value = "DELETE FROM tasks WHERE id IN (SELECT task_id FROM task_tags WHERE tag_id = :tagId LIMIT :limit)",
+            nativeQuery = true)
+    int deleteTasksByTagId(@Param("tagId") Long tagId, @Param("limit") int limit);
+
+    /**
+     * Посчитать существующие задачи и теги одним запросом, заблокировав их строки в порядке id:
+     * параллельные пакетные изменения связей ждут друг друга, а не взаимно блокируются
+     *
+     * @param taskIds - id задач
+     * @param tagIds  - id тегов
+     * @return - количество найденных задач и тегов
+     */
+    @Query(value = "SELECT (SELECT COUNT(*) FROM (SELECT id FROM tags WHERE id = ANY(CAST(:tagIds AS BIGINT[])) "
+            + "ORDER BY id FOR NO KEY UPDATE) locked_tags) AS tags, "
+            + "(SELECT COUNT(*) FROM (SELECT id FROM tasks WHERE id = ANY(CAST(:taskIds AS BIGINT[])) "
+            + "ORDER BY id FOR NO KEY UPDATE) locked_tasks) AS tasks",
+            nativeQuery = true)
+    TaskTagCounts lockTasksAndTags(@Param("taskIds") Long[] taskIds, @Param("tagIds") Long[] tagIds);
+
+    @Query("SELECT t.id FROM Task t WHERE t.id IN :ids")
+    List<Long> findExistingIds(@Param("ids") Collection<Long> ids);
+
+    /**
+     * Добавить каждый тег каждой задаче одним запросом. Существующие связи пропускаются,
+     * счетчики тегов и версии задач меняются только по реально добавленным связям
+     *
+     * @param taskIds - id задач
+     * @param tagIds  - id тегов
+     * @return - количество добавленных связей
+     */
+    @Query(value = "WITH inserted AS ("
+            + "INSERT INTO task_tags (task_id, tag_id) "
+            + "SELECT task.id, tag.id FROM tasks task CROSS JOIN tags tag "
+            + "WHERE task.id = ANY(CAST(:taskIds AS BIGINT[])) AND tag.id = ANY(CAST(:tagIds AS BIGINT[])) "
+            + "ON CONFLICT DO NOTHING RETURNING task_id, tag_id), "
+            + "counted AS (UPDATE tags SET task_count = task_count + changed.links "
+            + "FROM (SELECT tag_id, COUNT(*) AS links FROM inserted GROUP BY tag_id) changed "
+            + "WHERE tags.id = changed.tag_id RETURNING tags.id), "
+            + "versioned AS (UPDATE tasks SET version = version + 1 "
+            + "WHERE id IN (SELECT task_id FROM inserted) RETURNING tasks.id) "
+            + "SELECT COUNT(*) FROM inserted",
+            nativeQuery = true)
+    long linkTags(@Param("taskIds") Long[] taskIds, @Param("tagIds") Long[] tagIds);
+
+    /**
+     * Удалить каждый тег у каждой задачи одним запросом
+     *
+     * @param taskIds - id задач
+     * @param tagIds  - id тегов
+     * @return - количество удаленных связей
+     */
+    @Query(value = "WITH deleted AS ("
+            + "DELETE FROM task_tags "
+            + "WHERE task_id = ANY(CAST(:taskIds AS BIGINT[])) AND tag_id = ANY(CAST(:tagIds AS BIGINT[])) "
+            + "RETURNING task_id, tag_id), "
+            + "counted AS (UPDATE tags SET task_count = task_count - changed.links "
+            + "FROM (SELECT tag_id, COUNT(*) AS links FROM deleted GROUP BY tag_id) changed "
+            + "WHERE tags.id = changed.tag_id RETURNING tags.id), "
+            + "versioned AS (UPDATE tasks SET version = version + 1 "
+            + "WHERE id IN (SELECT task_id FROM deleted) RETURNING tasks.id) "
+            + "SELECT COUNT(*) FROM deleted",
+            nativeQuery = true)
+    long unlinkTags(@Param("taskIds") Long[] taskIds, @Param("tagIds") Long[] tagIds);
+
+    /**
+     * Первая порция задач с датой завершения, в порядке (scheduled_date, id)
+     *
+     * @param limit - размер порции
+     * @return - список задач
+     */
+    @Query(value = "SELECT * FROM tasks WHERE scheduled_date IS NOT NULL ORDER BY scheduled_date, id LIMIT :limit",
+            nativeQuery = true)
+    List<Task> findFirstScheduled(@Param("limit") int limit);
+
+    /**
+     * Следующая порция задач с датой завершения после указанной позиции
+     *
+     * @param scheduledDate - дата последней выданной задачи
+     * @param id            - id последней выданной задачи
+     * @param limit         - размер порции
+     * @return - список задач
+     */
+    @Query(value = "SELECT * FROM tasks WHERE (scheduled_date, id) > (:scheduledDate, :id) "
+            + "ORDER BY scheduled_date, id LIMIT :limit", nativeQuery = true)
+    List<Task> findNextScheduled(@Param("scheduledDate") LocalDateTime scheduledDate,
+                                 @Param("id") Long id,
+                                 @Param("limit") int limit);
+
+    /**
+     * Порция задач без даты завершения после указанного id
+     *
+     * @param id    - id последней выданной задачи (0 для начала)
+     * @param limit - размер порции
+     * @return - список задач
+     */
+    @Query(value = "SELECT * FROM tasks WHERE scheduled_date IS NULL AND id > :id ORDER BY id LIMIT :limit",
+            nativeQuery = true)
+    List<Task> findNextUnscheduled(@Param("id") Long id, @Param("limit") int limit);
 }
\ No newline at end of file
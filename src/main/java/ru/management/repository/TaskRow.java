@@ -0,0 +1,19 @@
+package ru.management.repository;
+
+import ru.management.dto.tag.TagResponse;
+import ru.management.dto.task.TaskResponse;
+import ru.management.enums.TaskPriority;
+
+import java.time.LocalDateTime;
+import java.util.Set;
+
+/**
+ * Поля задачи для ответа, выбранные без создания сущности в контексте
+ */
+public record TaskRow(Long id, String name, String description, LocalDateTime scheduledDate,
+                      TaskPriority priority, Long version) {
+
+    public TaskResponse toResponse(Set<TagResponse> tags) {
+        return new TaskResponse(id, name, description, scheduledDate, priority, tags, version);
+    }
+}
@@ -0,0 +1,11 @@
+package ru.management.repository;
+
+/**
+ * Результат полнотекстового поиска: id задачи и её релевантность
+ */
+public interface TaskSearchHit {
+
+    Long getId();
+
+    Float getRank();
+}
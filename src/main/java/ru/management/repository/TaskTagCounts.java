@@ -0,0 +1,11 @@
+package ru.management.repository;
+
+/**
+ * Количество найденных задач и тегов из запроса
+ */
+public interface TaskTagCounts {
+
+    long getTasks();
+
+    long getTags();
+}
@@ -0,0 +1,7 @@
+package ru.management.repository;
+
+/**
+ * Тег задачи, выбранный без создания сущностей
+ */
+public record TaskTagRow(Long taskId, Long tagId, String tagName, int tagTaskCount) {
+}
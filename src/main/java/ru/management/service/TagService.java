@@ -1,6 +1,7 @@
 package ru.management.service;
 
 import ru.management.dto.tag.TagCreateOrUpdateRequest;
+import ru.management.dto.tag.TagResolveResponse;
 import ru.management.dto.tag.TagResponse;
 
 import java.util.List;
@@ -15,6 +16,14 @@ public interface TagService {
      */
     TagResponse createTag(TagCreateOrUpdateRequest tagCreateOrUpdateRequest);
 
+    /**
+     * Получить теги по именам, создав недостающие
+     *
+     * @param names - имена тегов
+     * @return - теги в порядке запроса, без повторов
+     */
+    List<TagResolveResponse> resolveTags(List<String> names);
+
     /**
      * Обновить тег
      *
@@ -25,11 +34,12 @@ public interface TagService {
     TagResponse updateTag(Long tagId, TagCreateOrUpdateRequest tag);
 
     /**
-     * Удаление тега
+     * Удаление тега вместе с его задачами
      *
      * @param tagId - id тега
+     * @return - количество удаленных задач
      */
-    void deleteTagAndTasks(Long tagId);
+    int deleteTagAndTasks(Long tagId);
 
     /**
      * Получить список всех тегов, у которых есть задачи
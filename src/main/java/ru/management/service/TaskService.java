@@ -1,16 +1,24 @@
 package ru.management.service;
 
+import com.fasterxml.jackson.databind.JsonNode;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.web.multipart.MultipartFile;
+import ru.management.dto.file.FileDownload;
+import ru.management.dto.task.TaskBatchItemResponse;
 import ru.management.dto.task.TaskCreateOrUpdateRequest;
+import ru.management.dto.task.TaskDayStatsResponse;
 import ru.management.dto.task.TaskPriorityResponse;
 import ru.management.dto.task.TaskResponse;
+import ru.management.dto.task.TaskScrollResponse;
+import ru.management.dto.task.TaskTagBulkResponse;
 
-import java.io.File;
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
 import java.time.LocalDate;
 import java.util.List;
+import java.util.Set;
 
 public interface TaskService {
 
@@ -22,6 +30,14 @@ public interface TaskService {
      */
     TaskResponse createTask(TaskCreateOrUpdateRequest task);
 
+    /**
+     * Создать задачи пакетом
+     *
+     * @param tasks - создаваемые задачи
+     * @return - результат по каждой задаче в порядке запроса
+     */
+    List<TaskBatchItemResponse> createTasks(List<TaskCreateOrUpdateRequest> tasks);
+
     /**
      * Обновить задачу
      *
@@ -31,6 +47,34 @@ public interface TaskService {
      */
     TaskResponse updateTask(Long taskId, TaskCreateOrUpdateRequest task);
 
+    /**
+     * Частично обновить задачу по JSON Merge Patch, записываются только измененные поля
+     *
+     * @param taskId          - id задачи
+     * @param patch           - изменения: отсутствующее поле не меняется, null очищает поле
+     * @param expectedVersion - ожидаемая версия задачи из If-Match (null без проверки)
+     * @return - обновленная задача
+     */
+    TaskResponse patchTask(Long taskId, JsonNode patch, Long expectedVersion);
+
+    /**
+     * Добавить каждый тег каждой задаче, существующие связи пропускаются
+     *
+     * @param taskIds - id задач
+     * @param tagIds  - id тегов
+     * @return - количество добавленных связей
+     */
+    TaskTagBulkResponse linkTags(Set<Long> taskIds, Set<Long> tagIds);
+
+    /**
+     * Удалить каждый тег у каждой задачи
+     *
+     * @param taskIds - id задач
+     * @param tagIds  - id тегов
+     * @return - количество удаленных связей
+     */
+    TaskTagBulkResponse unlinkTags(Set<Long> taskIds, Set<Long> tagIds);
+
     /**
      * Удаление задачи
      *
@@ -72,6 +116,48 @@ public interface TaskService {
      */
     List<TaskResponse> getAllTasksBetweenDateByPriorityDesc(LocalDate startDate, LocalDate endDate);
 
+    /**
+     * Получить количество задач по дням и приоритетам за период
+     *
+     * @param startDate - начальная дата
+     * @param endDate   - конец периода включительно
+     * @param tagId     - id тега (null для всех задач)
+     * @return - количество задач по дням и приоритетам, в порядке дней
+     */
+    List<TaskDayStatsResponse> getTaskStats(LocalDate startDate, LocalDate endDate, Long tagId);
+
+    /**
+     * Выгрузить задачи за промежуток времени в формате NDJSON
+     *
+     * @param startDate    - начальная дата
+     * @param endDate      - конец периода
+     * @param outputStream - поток ответа, по одной задаче на строку
+     */
+    void exportTasksBetweenDateByPriorityDesc(LocalDate startDate, LocalDate endDate,
+                                              OutputStream outputStream) throws IOException;
+
+    /**
+     * Найти задачи по тексту названия и описания
+     *
+     * @param query     - поисковый запрос
+     * @param tagId     - id тега или null
+     * @param startDate - начало периода или null
+     * @param endDate   - конец периода или null
+     * @param cursor    - курсор предыдущей порции или null
+     * @param size      - размер порции
+     * @return - задачи в порядке релевантности и курсор следующей порции
+     */
+    TaskScrollResponse searchTasks(String query, Long tagId, LocalDate startDate, LocalDate endDate,
+                                   String cursor, int size);
+
+    /**
+     * Получить задачу
+     *
+     * @param taskId - id задачи
+     * @return - задача
+     */
+    TaskResponse getTask(Long taskId);
+
     /**
      * Получить список задач по тегу
      *
@@ -88,6 +174,16 @@ public interface TaskService {
      */
     Page<TaskResponse> getAllTasks(Pageable pageable);
 
+    /**
+     * Получить порцию задач по курсору, в порядке даты завершения
+     *
+     * @param cursor    - курсор предыдущей порции (null для первой порции)
+     * @param size      - размер порции
+     * @param withTotal - посчитать общее количество задач
+     * @return - порция задач и курсор следующей порции
+     */
+    TaskScrollResponse scrollTasks(String cursor, int size, boolean withTotal);
+
     /**
      * Загрузить файл для задачи
      *
@@ -96,10 +192,21 @@ public interface TaskService {
      */
     void uploadFile(Long taskId, MultipartFile file);
 
+    /**
+     * Загрузить файл для задачи потоком из тела запроса
+     *
+     * @param taskId      - id задачи
+     * @param filename    - имя файла
+     * @param contentType - тип содержимого
+     * @param content     - содержимое файла
+     */
+    void uploadFile(Long taskId, String filename, String contentType, InputStream content);
+
     /**
      * Скачать файл определенной задачи
      *
      * @param taskId - id задачи
+     * @return - содержимое файла с метаданными для условных и частичных запросов
      */
-    File downloadFile(Long taskId) throws IOException;
+    FileDownload downloadFile(Long taskId) throws IOException;
 }
\ No newline at end of file
@@ -0,0 +1,136 @@
+package ru.management.service.impl;
+
+import jakarta.persistence.EntityManagerFactory;
+import lombok.RequiredArgsConstructor;
+import org.hibernate.SessionFactory;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import ru.management.config.CacheNames;
+import ru.management.entity.Tag;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Точечная очистка кэшей задач и тегов при изменении данных
+ */
+@Service
+@RequiredArgsConstructor
+public class CacheEvictionService {
+
+    private final CacheManager cacheManager;
+    private final TaskStatsCache taskStatsCache;
+    private final EntityManagerFactory entityManagerFactory;
+
+    /**
+     * Очистить кэш задачи и списков задач по её тегам, так как в них лежит копия задачи
+     *
+     * @param taskId - id задачи
+     * @param tagIds - id тегов задачи
+     */
+    public void evictTask(Long taskId, Collection<Long> tagIds) {
+        evict(CacheNames.TASK, taskId);
+        tagIds.forEach(tagId -> evict(CacheNames.TASKS_BY_TAG, tagId));
+    }
+
+    /**
+     * Очистить кэши задач и списков задач после изменения счетчика задач у тега.
+     * Счетчик входит в теги каждой закэшированной задачи с этим тегом, а такие задачи нельзя перечислить
+     */
+    public void clearTaskResponses() {
+        clear(CacheNames.TASK);
+        clear(CacheNames.TASKS_BY_TAG);
+    }
+
+    /**
+     * Очистить кэш списка задач по тегу
+     *
+     * @param tagId - id тега
+     */
+    public void evictTasksByTag(Long tagId) {
+        evict(CacheNames.TASKS_BY_TAG, tagId);
+    }
+
+    /**
+     * Очистить кэш тегов с задачами и кэш запроса под ним после изменения счетчиков
+     */
+    public void evictTagsForTasks() {
+        clear(CacheNames.TAGS_FOR_TASKS);
+        afterCommit(() -> entityManagerFactory.unwrap(SessionFactory.class).getCache()
+                .evictQueryRegion(CacheNames.TAGS_FOR_TASKS_QUERY_REGION));
+    }
+
+    /**
+     * Очистить теги в кэше второго уровня после изменения счетчиков запросами в обход контекста
+     *
+     * @param tagIds - id тегов
+     */
+    public void evictTags(Collection<Long> tagIds) {
+        List<Long> evicted = List.copyOf(tagIds);
+        afterCommit(() -> evicted.forEach(tagId -> entityManagerFactory.getCache().evict(Tag.class, tagId)));
+    }
+
+    /**
+     * Очистить все теги в кэше второго уровня после пересчета счетчиков
+     */
+    public void evictAllTags() {
+        afterCommit(() -> entityManagerFactory.getCache().evict(Tag.class));
+    }
+
+    /**
+     * Очистить статистику дня задачи
+     *
+     * @param scheduledDate - дата задачи
+     */
+    public void evictTaskStats(LocalDateTime scheduledDate) {
+        Optional.ofNullable(scheduledDate).map(LocalDateTime::toLocalDate).ifPresent(taskStatsCache::evictDay);
+    }
+
+    /**
+     * Очистить статистику дней
+     *
+     * @param days - дни
+     */
+    public void evictTaskStats(Collection<LocalDate> days) {
+        days.forEach(taskStatsCache::evictDay);
+    }
+
+    /**
+     * Очистить все кэши задач, когда затронутые задачи нельзя перечислить
+     */
+    public void clearTasks() {
+        clearTaskResponses();
+        taskStatsCache.clear();
+    }
+
+    private void evict(String cacheName, Object key) {
+        Optional.ofNullable(cacheManager.getCache(cacheName)).ifPresent(cache -> cache.evict(key));
+    }
+
+    private void clear(String cacheName) {
+        Optional.ofNullable(cacheManager.getCache(cacheName)).ifPresent(Cache::clear);
+    }
+
+    /**
+     * Кэш второго уровня очищается после фиксации, как и кэши Spring:
+     * до неё параллельное чтение снова положило бы в кэш старые значения из базы
+     */
+    private void afterCommit(Runnable eviction) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            eviction.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                eviction.run();
+            }
+        });
+    }
+}
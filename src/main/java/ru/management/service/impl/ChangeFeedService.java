@@ -0,0 +1,292 @@
+package ru.management.service.impl;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import ru.management.dto.change.ChangeEvent;
+import ru.management.enums.ChangeType;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Лента изменений задач и тегов для подписчиков Server-Sent Events.
+ * События принимаются после фиксации транзакции, получают сквозной номер и попадают в кольцевой буфер
+ * для возобновления по Last-Event-ID и в ограниченные очереди подписчиков. Отправка идет на отдельном пуле
+ * потоков, не больше одной задачи на подписчика, поэтому поток запроса с изменением не ждет медленных клиентов.
+ * Подписчик с переполненной очередью или с записью дольше changes.send-timeout отключается
+ * и может переподключиться с последнего полученного события
+ */
+@Slf4j
+@Service
+public class ChangeFeedService {
+
+    private static final FeedEvent HEARTBEAT = new FeedEvent(0, null, null);
+
+    private final String instance = Long.toHexString(ThreadLocalRandom.current().nextLong());
+    private final ObjectMapper objectMapper;
+    private final Executor sendExecutor;
+    private final int replaySize;
+    private final int bufferSize;
+    private final long timeoutMillis;
+    private final long sendTimeoutNanos;
+    private final Counter droppedSubscribers;
+
+    private final Deque<FeedEvent> replay = new ArrayDeque<>();
+    private final Set<Subscriber> subscribers = ConcurrentHashMap.newKeySet();
+    private long sequence;
+
+    @Autowired
+    public ChangeFeedService(ObjectMapper objectMapper,
+                             MeterRegistry meterRegistry,
+                             @Value("${changes.send-threads}") int sendThreads,
+                             @Value("${changes.replay-size}") int replaySize,
+                             @Value("${changes.subscriber-buffer}") int bufferSize,
+                             @Value("${changes.timeout}") Duration timeout,
+                             @Value("${changes.send-timeout}") Duration sendTimeout) {
+        this(objectMapper, meterRegistry, Executors.newFixedThreadPool(sendThreads, sendThreadFactory()),
+                replaySize, bufferSize, timeout, sendTimeout);
+    }
+
+    ChangeFeedService(ObjectMapper objectMapper, MeterRegistry meterRegistry, Executor sendExecutor,
+                      int replaySize, int bufferSize, Duration timeout, Duration sendTimeout) {
+        this.objectMapper = objectMapper;
+        this.sendExecutor = sendExecutor;
+        this.replaySize = replaySize;
+        this.bufferSize = bufferSize;
+        this.timeoutMillis = timeout.toMillis();
+        this.sendTimeoutNanos = sendTimeout.toNanos();
+        this.droppedSubscribers = meterRegistry.counter("changes.subscribers.dropped");
+        meterRegistry.gaugeCollectionSize("changes.subscribers", Tags.empty(), subscribers);
+    }
+
+    /**
+     * Подписаться на изменения
+     *
+     * @param lastEventId - id последнего полученного события (null для новой подписки)
+     * @return - поток событий
+     */
+    public SseEmitter subscribe(String lastEventId) {
+        SseEmitter emitter = createEmitter(timeoutMillis);
+        Subscriber subscriber = new Subscriber(emitter, new LinkedBlockingQueue<>(bufferSize));
+        emitter.onCompletion(() -> subscribers.remove(subscriber));
+        emitter.onError(e -> subscribers.remove(subscriber));
+        emitter.onTimeout(emitter::complete);
+        synchronized (replay) {
+            missedEvents(lastEventId).ifPresentOrElse(
+                    missed -> missed.forEach(subscriber.queue::offer),
+                    () -> subscriber.queue.offer(feedEvent(sequence, new ChangeEvent(ChangeType.RESET, null, null))));
+            subscribers.add(subscriber);
+        }
+        scheduleSend(subscriber);
+        return emitter;
+    }
+
+    /**
+     * Разослать изменение после фиксации транзакции, в которой оно опубликовано
+     *
+     * @param event - изменение
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onChange(ChangeEvent event) {
+        List<Subscriber> ready = new ArrayList<>();
+        List<Subscriber> overflowed = new ArrayList<>();
+        synchronized (replay) {
+            FeedEvent feedEvent = feedEvent(++sequence, event);
+            if (replay.size() == replaySize) {
+                replay.removeFirst();
+            }
+            replay.addLast(feedEvent);
+            for (Subscriber subscriber : subscribers) {
+                (subscriber.queue.offer(feedEvent) ? ready : overflowed).add(subscriber);
+            }
+            overflowed.forEach(subscribers::remove);
+        }
+        overflowed.forEach(subscriber -> {
+            droppedSubscribers.increment();
+            subscriber.emitter.complete();
+        });
+        ready.forEach(this::scheduleSend);
+    }
+
+    /**
+     * Комментарий в простаивающие потоки, чтобы прокси не закрывали соединение,
+     * а оборванные соединения обнаруживались на записи
+     */
+    @Scheduled(fixedRateString = "${changes.heartbeat-interval}")
+    public void heartbeat() {
+        for (Subscriber subscriber : subscribers) {
+            if (subscriber.queue.isEmpty() && subscriber.queue.offer(HEARTBEAT)) {
+                scheduleSend(subscriber);
+            }
+        }
+    }
+
+    /**
+     * Отключение подписчиков, запись которым идет дольше changes.send-timeout: клиент не читает поток,
+     * и поток отправки иначе ждал бы таймаута записи контейнера, не обслуживая остальных подписчиков.
+     * Проверка идет с тем же интервалом, поэтому подписчик отключается не позже двух интервалов
+     */
+    @Scheduled(fixedRateString = "${changes.send-timeout}")
+    public void dropStalledSubscribers() {
+        long now = System.nanoTime();
+        for (Subscriber subscriber : subscribers) {
+            long sendStarted = subscriber.sendStarted;
+            if (sendStarted != 0 && now - sendStarted >= sendTimeoutNanos && subscribers.remove(subscriber)) {
+                droppedSubscribers.increment();
+                subscriber.emitter.complete();
+                synchronized (subscriber) {
+                    if (subscriber.sender != null) {
+                        subscriber.sender.interrupt();
+                    }
+                }
+            }
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        subscribers.forEach(subscriber -> subscriber.emitter.complete());
+        subscribers.clear();
+        if (sendExecutor instanceof ExecutorService executorService) {
+            executorService.shutdownNow();
+        }
+    }
+
+    SseEmitter createEmitter(long timeout) {
+        return new SseEmitter(timeout);
+    }
+
+    /**
+     * События после lastEventId из кольцевого буфера. Пусто, если id выдан до перезапуска,
+     * вытеснен из буфера или пропущенных событий больше, чем вмещает очередь подписчика
+     */
+    private Optional<List<FeedEvent>> missedEvents(String lastEventId) {
+        if (lastEventId == null || lastEventId.isBlank()) {
+            return Optional.of(List.of());
+        }
+        long lastSequence = parseSequence(lastEventId);
+        long oldestSequence = replay.isEmpty() ? sequence + 1 : replay.getFirst().sequence();
+        if (lastSequence < oldestSequence - 1 || lastSequence > sequence || sequence - lastSequence > bufferSize) {
+            return Optional.empty();
+        }
+        return Optional.of(replay.stream().filter(event -> event.sequence() > lastSequence).toList());
+    }
+
+    private long parseSequence(String eventId) {
+        String prefix = instance + ":";
+        if (!eventId.startsWith(prefix)) {
+            return -1;
+        }
+        try {
+            return Long.parseLong(eventId.substring(prefix.length()));
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+
+    private FeedEvent feedEvent(long eventSequence, ChangeEvent event) {
+        try {
+            return new FeedEvent(eventSequence, event.type().name(), objectMapper.writeValueAsString(event));
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Не удалось сериализовать событие " + event, e);
+        }
+    }
+
+    private void scheduleSend(Subscriber subscriber) {
+        if (subscriber.queue.isEmpty() || !subscriber.sending.compareAndSet(false, true)) {
+            return;
+        }
+        sendExecutor.execute(() -> send(subscriber));
+    }
+
+    private void send(Subscriber subscriber) {
+        synchronized (subscriber) {
+            subscriber.sender = Thread.currentThread();
+        }
+        try {
+            FeedEvent event;
+            while ((event = subscriber.queue.poll()) != null) {
+                subscriber.sendStarted = System.nanoTime();
+                subscriber.emitter.send(toSseEvent(event));
+                subscriber.sendStarted = 0;
+            }
+        } catch (IOException | IllegalStateException e) {
+            log.debug("Подписчик ленты изменений отключился: {}", e.getMessage());
+            subscribers.remove(subscriber);
+            subscriber.queue.clear();
+        } finally {
+            synchronized (subscriber) {
+                // Прерывание по таймауту записи не должно достаться следующей задаче пула
+                subscriber.sender = null;
+                Thread.interrupted();
+            }
+            subscriber.sendStarted = 0;
+            subscriber.sending.set(false);
+        }
+        if (subscribers.contains(subscriber)) {
+            scheduleSend(subscriber);
+        }
+    }
+
+    private SseEmitter.SseEventBuilder toSseEvent(FeedEvent event) {
+        if (event == HEARTBEAT) {
+            return SseEmitter.event().comment("heartbeat");
+        }
+        return SseEmitter.event()
+                .id(instance + ":" + event.sequence())
+                .name(event.name())
+                .data(event.data(), MediaType.APPLICATION_JSON);
+    }
+
+    private static CustomizableThreadFactory sendThreadFactory() {
+        CustomizableThreadFactory threadFactory = new CustomizableThreadFactory("change-feed-");
+        threadFactory.setDaemon(true);
+        return threadFactory;
+    }
+
+    /**
+     * Событие сериализуется один раз и переиспользуется для всех подписчиков
+     */
+    private record FeedEvent(long sequence, String name, String data) {
+    }
+
+    private static final class Subscriber {
+        private final SseEmitter emitter;
+        private final BlockingQueue<FeedEvent> queue;
+        private final AtomicBoolean sending = new AtomicBoolean();
+        private volatile long sendStarted;
+        private Thread sender;
+
+        private Subscriber(SseEmitter emitter, BlockingQueue<FeedEvent> queue) {
+            this.emitter = emitter;
+            this.queue = queue;
+        }
+    }
+}
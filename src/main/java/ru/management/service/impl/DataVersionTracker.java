@@ -0,0 +1,45 @@
+package ru.management.service.impl;
+
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Версия данных задач и тегов для условных GET запросов.
+ * Версия увеличивается после фиксации каждой изменяющей транзакции, поэтому клиент не получит 304
+ * на данные, которые еще не видны другим соединениям. Префикс процесса отличает версии после перезапуска
+ */
+@Service
+public class DataVersionTracker {
+
+    private final String instance = Long.toHexString(ThreadLocalRandom.current().nextLong());
+    private final AtomicLong version = new AtomicLong();
+
+    /**
+     * Отметить изменение данных в текущей транзакции
+     */
+    public void markChanged() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    version.incrementAndGet();
+                }
+            });
+        } else {
+            version.incrementAndGet();
+        }
+    }
+
+    /**
+     * Получить тег текущей версии данных
+     *
+     * @return - значение ETag
+     */
+    public String currentETag() {
+        return "W/\"" + instance + "-" + version.get() + "\"";
+    }
+}
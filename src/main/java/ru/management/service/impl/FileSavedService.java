@@ -1,47 +1,340 @@
 package ru.management.service.impl;
 
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.RequiredArgsConstructor;
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.core.io.Resource;
-import org.springframework.core.io.UrlResource;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.http.InvalidMediaTypeException;
+import org.springframework.http.MediaType;
+import org.springframework.http.MediaTypeFactory;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 import org.springframework.web.multipart.MultipartFile;
+import ru.management.dto.file.FileDownload;
+import ru.management.entity.Attachment;
+import ru.management.repository.AttachmentBlobRepository;
+import ru.management.repository.AttachmentRepository;
+import ru.management.repository.TaskRepository;
 
-import java.io.File;
 import java.io.FileNotFoundException;
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.Comparator;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Optional;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
 
 @Service
+@RequiredArgsConstructor
 public class FileSavedService {
 
+    private static final Pattern LEGACY_FILENAME = Pattern.compile("task_(\\d+)_(.+)");
+    private static final String TEMP_DIR = "tmp";
+
+    private final AttachmentRepository attachmentRepository;
+    private final AttachmentBlobRepository attachmentBlobRepository;
+    private final TaskRepository taskRepository;
+    private final MeterRegistry meterRegistry;
+
     @Value("${upload.dir}")
     private String uploadDir;
 
+    @Transactional
     public void saveFile(Long taskId, MultipartFile file) {
         try {
-            Files.createDirectories(Paths.get(uploadDir));
-            String filename = "task_" + taskId + "_" + file.getOriginalFilename();
-            Path filePath = Paths.get(uploadDir, filename);
-            file.transferTo(filePath);
+            saveFile(taskId, file.getOriginalFilename(), file.getContentType(), file.getInputStream());
         } catch (IOException e) {
             throw new RuntimeException("Не удалось сохранить файл", e);
         }
     }
 
-    public File loadFile(Long taskId) throws IOException {
+    /**
+     * Сохранить содержимое потоком: байты один раз пишутся во временный файл с подсчетом SHA-256,
+     * затем файл переносится в хранилище по контрольной сумме или удаляется, если такое содержимое уже есть.
+     * Перенос выполняется после фиксации: при откате не остается файла без строки attachment_blob,
+     * который ночная очистка по строкам таблицы не нашла бы
+     */
+    @Transactional
+    public void saveFile(Long taskId, String filename, String contentType, InputStream content) {
+        store(taskId, filename, contentType, content, LocalDateTime.now());
+    }
+
+    /**
+     * Найти файлы, сохраненные до появления таблицы вложений, в плоском каталоге загрузок.
+     * Новые файлы идут первыми, чтобы при переносе нескольких файлов одной задачи она получила последний
+     *
+     * @return - пути к файлам
+     */
+    public List<Path> findLegacyFiles() {
         Path dirPath = Paths.get(uploadDir).normalize();
+        if (!Files.isDirectory(dirPath)) {
+            return List.of();
+        }
+        try (Stream<Path> files = Files.list(dirPath)) {
+            return files
+                    .filter(Files::isRegularFile)
+                    .filter(file -> LEGACY_FILENAME.matcher(file.getFileName().toString()).matches())
+                    .sorted(Comparator.comparing(this::lastModified).reversed())
+                    .toList();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Не удалось прочитать каталог загрузок " + dirPath, e);
+        }
+    }
 
-        Path filePath = Files.list(dirPath)
-                .filter(f -> f.getFileName().toString().startsWith("task_" + taskId + "_"))
-                .findFirst()
-                .orElseThrow(() -> new FileNotFoundException("Файл для задачи " + taskId + " не найден"));
+    /**
+     * Перенести файл из плоского каталога в хранилище по контрольной сумме с записью вложения.
+     * Время создания вложения берется из времени изменения файла. Файл задачи, у которой уже есть вложение,
+     * или удаленной задачи не переносится. Исходный файл удаляется после фиксации,
+     * поэтому перенос, прерванный сбоем, продолжится при следующем запуске
+     *
+     * @param file - файл в плоском каталоге загрузок
+     * @return - true, если создано вложение
+     */
+    @Transactional
+    public boolean migrateLegacyFile(Path file) {
+        Matcher matcher = LEGACY_FILENAME.matcher(file.getFileName().toString());
+        if (!matcher.matches()) {
+            return false;
+        }
+        Long taskId = Long.valueOf(matcher.group(1));
+        boolean migrate = taskRepository.existsById(taskId)
+                && attachmentRepository.findFirstByTaskIdOrderByIdDesc(taskId).isEmpty();
+        if (migrate) {
+            LocalDateTime createdAt = LocalDateTime.ofInstant(lastModified(file), ZoneId.systemDefault());
+            try (InputStream content = Files.newInputStream(file)) {
+                store(taskId, matcher.group(2), null, content, createdAt);
+            } catch (IOException e) {
+                throw new UncheckedIOException("Не удалось прочитать файл " + file, e);
+            }
+        }
+        deleteAfterCommit(file);
+        return migrate;
+    }
+
+    private void store(Long taskId, String filename, String contentType, InputStream content,
+                       LocalDateTime createdAt) {
+        Timer.Sample sample = Timer.start(meterRegistry);
+        Path tempFile = null;
+        try {
+            Path tempDir = Files.createDirectories(Paths.get(uploadDir, TEMP_DIR));
+            tempFile = Files.createTempFile(tempDir, "upload-", ".part");
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            long size;
+            try (InputStream inputStream = new DigestInputStream(content, digest)) {
+                size = Files.copy(inputStream, tempFile, StandardCopyOption.REPLACE_EXISTING);
+            }
+            String checksum = HexFormat.of().formatHex(digest.digest());
 
-        Resource resource = new UrlResource(filePath.toUri());
-        if (!resource.isReadable()) {
+            meterRegistry.counter("attachment.upload.bytes").increment(size);
+
+            int refCount = attachmentBlobRepository.acquire(checksum, size, LocalDateTime.now());
+            Path blobPath = resolveStoragePath(checksum);
+            boolean store = refCount == 1 || !Files.exists(blobPath);
+            if (!store) {
+                meterRegistry.counter("attachment.upload.deduplicated.bytes").increment(size);
+            }
+            attachmentRepository.save(Attachment.builder()
+                    .taskId(taskId)
+                    .storageKey(checksum)
+                    .originalFilename(Optional.ofNullable(filename).orElse(checksum))
+                    .size(size)
+                    .contentType(contentType)
+                    .checksum(checksum)
+                    .createdAt(createdAt)
+                    .build());
+
+            Path upload = tempFile;
+            tempFile = null;
+            storeAfterCommit(upload, store ? blobPath : null);
+        } catch (IOException | NoSuchAlgorithmException e) {
+            throw new RuntimeException("Не удалось сохранить файл", e);
+        } finally {
+            deleteQuietly(tempFile);
+            sample.stop(meterRegistry.timer("attachment.upload"));
+        }
+    }
+
+    /**
+     * Освободить содержимое вложений задачи перед её удалением
+     *
+     * @param taskId - id задачи
+     */
+    @Transactional
+    public void releaseTaskFiles(Long taskId) {
+        attachmentBlobRepository.releaseByTaskId(taskId);
+    }
+
+    @Transactional
+    public int reconcileBlobReferences() {
+        return attachmentBlobRepository.reconcileRefCounts();
+    }
+
+    @Transactional(readOnly = true)
+    public List<String> findUnreferencedBlobs() {
+        return attachmentBlobRepository.findUnreferencedChecksums();
+    }
+
+    /**
+     * Удалить содержимое без ссылок. Строка удаляется раньше файла и держит блокировку до фиксации,
+     * поэтому параллельная загрузка того же содержимого дождется удаления и запишет файл заново
+     *
+     * @param checksum - контрольная сумма
+     * @return - true, если содержимое удалено
+     */
+    @Transactional
+    public boolean deleteBlobIfUnreferenced(String checksum) {
+        if (attachmentBlobRepository.deleteIfUnreferenced(checksum) == 0) {
+            return false;
+        }
+        try {
+            Files.deleteIfExists(resolveStoragePath(checksum));
+        } catch (IOException e) {
+            throw new UncheckedIOException("Не удалось удалить файл " + checksum, e);
+        }
+        return true;
+    }
+
+    /**
+     * Найти файл задачи для отдачи. Передача байтов идет уже после возврата из метода,
+     * поэтому её длительность видна в http.server.requests, а объем отданных байтов в DownloadBytesMetricsFilter
+     *
+     * @param taskId - id задачи
+     * @return - файл и его метаданные
+     */
+    public FileDownload loadFile(Long taskId) throws IOException {
+        Timer.Sample sample = Timer.start(meterRegistry);
+        try {
+            return findFile(taskId);
+        } finally {
+            sample.stop(meterRegistry.timer("attachment.download.lookup"));
+        }
+    }
+
+    private FileDownload findFile(Long taskId) throws IOException {
+        Optional<Attachment> attachment = attachmentRepository.findFirstByTaskIdOrderByIdDesc(taskId);
+        if (attachment.isEmpty()) {
+            throw new FileNotFoundException("Файл для задачи " + taskId + " не найден");
+        }
+        Path filePath = readablePath(resolveStoragePath(attachment.get().getStorageKey()));
+        // Время изменения файла - это первое сохранение такого содержимого, а не создание вложения
+        return new FileDownload(
+                new FileSystemResource(filePath),
+                attachment.get().getOriginalFilename(),
+                resolveContentType(attachment.get().getContentType(), attachment.get().getOriginalFilename()),
+                attachment.get().getChecksum(),
+                attachment.get().getCreatedAt().atZone(ZoneId.systemDefault()).toInstant());
+    }
+
+    /**
+     * Файлы раскладываются по двум уровням подкаталогов из первых символов ключа,
+     * чтобы в одном каталоге не накапливались сотни тысяч записей
+     */
+    private Path resolveStoragePath(String storageKey) {
+        return Paths.get(uploadDir, storageKey.substring(0, 2), storageKey.substring(2, 4), storageKey).normalize();
+    }
+
+    private Path readablePath(Path filePath) throws FileNotFoundException {
+        if (!Files.isReadable(filePath)) {
             throw new FileNotFoundException("Файл недоступен для чтения: " + filePath);
         }
-        return resource.getFile();
+        return filePath;
+    }
+
+    private MediaType resolveContentType(String contentType, String filename) {
+        if (contentType != null) {
+            try {
+                return MediaType.parseMediaType(contentType);
+            } catch (InvalidMediaTypeException ignored) {
+                // тип из запроса загрузки не разобрался, определяем по имени файла
+            }
+        }
+        return MediaTypeFactory.getMediaType(filename).orElse(MediaType.APPLICATION_OCTET_STREAM);
+    }
+
+    private void moveToStorage(Path upload, Path blobPath) {
+        try {
+            Files.createDirectories(blobPath.getParent());
+            Files.move(upload, blobPath, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Не удалось перенести файл в хранилище " + blobPath, e);
+        }
+    }
+
+    private void deleteAfterCommit(Path file) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            deleteQuietly(file);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                deleteQuietly(file);
+            }
+        });
+    }
+
+    private Instant lastModified(Path file) {
+        try {
+            return Files.getLastModifiedTime(file).toInstant();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Не удалось прочитать время изменения файла " + file, e);
+        }
+    }
+
+    /**
+     * Перенести загруженный файл в хранилище после фиксации, временный файл удаляется при любом исходе.
+     * Без транзакции перенос выполняется сразу
+     *
+     * @param upload   - временный файл
+     * @param blobPath - путь в хранилище, null если такое содержимое уже сохранено
+     */
+    private void storeAfterCommit(Path upload, Path blobPath) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            try {
+                Optional.ofNullable(blobPath).ifPresent(path -> moveToStorage(upload, path));
+            } finally {
+                deleteQuietly(upload);
+            }
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                Optional.ofNullable(blobPath).ifPresent(path -> moveToStorage(upload, path));
+            }
+
+            @Override
+            public void afterCompletion(int status) {
+                deleteQuietly(upload);
+            }
+        });
+    }
+
+    private void deleteQuietly(Path filePath) {
+        if (filePath == null) {
+            return;
+        }
+        try {
+            Files.deleteIfExists(filePath);
+        } catch (IOException ignored) {
+            // временный файл больше нигде не используется, остаток не мешает работе
+        }
     }
 }
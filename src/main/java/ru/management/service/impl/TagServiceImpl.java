@@ -1,36 +1,53 @@
 package ru.management.service.impl;
 
+import io.micrometer.core.annotation.Timed;
 import jakarta.persistence.EntityNotFoundException;
 import jakarta.validation.constraints.NotNull;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import ru.management.config.CacheNames;
+import ru.management.datasource.ReadFromPrimary;
+import ru.management.dto.change.ChangeEvent;
 import ru.management.dto.tag.TagCreateOrUpdateRequest;
+import ru.management.dto.tag.TagResolveResponse;
 import ru.management.dto.tag.TagResponse;
 import ru.management.entity.Tag;
-import ru.management.entity.Task;
 import ru.management.entity.exception.TagExistException;
+import ru.management.enums.ChangeType;
 import ru.management.mapper.TagMapper;
 import ru.management.repository.TagRepository;
 import ru.management.repository.TaskRepository;
 import ru.management.service.TagService;
 
-import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
 
 @Service
 @Slf4j
 @RequiredArgsConstructor
+@Timed(value = "tag.service", percentiles = {0.5, 0.95, 0.99})
 public class TagServiceImpl implements TagService {
 
+    private static final int DELETE_CHUNK_SIZE = 1000;
+
     private final TagRepository tagRepository;
     private final TaskRepository taskRepository;
     private final TagMapper tagMapper;
+    private final CacheEvictionService cacheEvictionService;
+    private final DataVersionTracker dataVersionTracker;
+    private final ApplicationEventPublisher eventPublisher;
 
     @Override
     @Transactional(readOnly = true)
+    @ReadFromPrimary
+    @Cacheable(CacheNames.TAGS_FOR_TASKS)
     public List<TagResponse> getTagsForTasks() {
         return tagMapper.entityListToResponseList(tagRepository.getAllTagsForTasks());
     }
@@ -43,10 +60,38 @@ public class TagServiceImpl implements TagService {
             throw new TagExistException("Имя тега должно начинаться с символа #");
         }
 
-        if (tagRepository.existsByName(tagCreateOrUpdateRequest.name())) {
-            throw new TagExistException("Тег " + tagCreateOrUpdateRequest.name() + " уже существует");
+        // Проверка и вставка одним запросом: параллельное создание того же тега не падает на уникальности
+        Long tagId = tagRepository.insertIfAbsent(tagCreateOrUpdateRequest.name())
+                .orElseThrow(() -> new TagExistException("Тег " + tagCreateOrUpdateRequest.name() + " уже существует"));
+        dataVersionTracker.markChanged();
+        eventPublisher.publishEvent(ChangeEvent.tag(ChangeType.TAG_CREATED, tagId));
+        return new TagResponse(tagId, tagCreateOrUpdateRequest.name(), 0);
+    }
+
+    @Override
+    @Transactional
+    public List<TagResolveResponse> resolveTags(List<String> names) {
+        log.info("Получение тегов по именам: {}", names.size());
+        Map<String, TagResolveResponse> resolved = new HashMap<>();
+        tagRepository.resolveByNames(names.stream().distinct().toArray(String[]::new))
+                .forEach(row -> resolved.put(row.getName(),
+                        new TagResolveResponse(row.getId(), row.getName(), Boolean.TRUE.equals(row.getCreated()))));
+
+        // Тег, созданный параллельной транзакцией после начала запроса, не виден в его снимке
+        List<String> missing = names.stream().filter(name -> !resolved.containsKey(name)).distinct().toList();
+        if (!missing.isEmpty()) {
+            tagRepository.findByNameIn(missing)
+                    .forEach(tag -> resolved.put(tag.getName(), new TagResolveResponse(tag.getId(), tag.getName(), false)));
         }
-        return tagMapper.toDto(tagRepository.save(tagMapper.toEntity(tagCreateOrUpdateRequest)));
+        List<Long> createdIds = resolved.values().stream()
+                .filter(TagResolveResponse::created)
+                .map(TagResolveResponse::id)
+                .toList();
+        if (!createdIds.isEmpty()) {
+            dataVersionTracker.markChanged();
+            createdIds.forEach(id -> eventPublisher.publishEvent(ChangeEvent.tag(ChangeType.TAG_CREATED, id)));
+        }
+        return names.stream().distinct().map(resolved::get).filter(Objects::nonNull).toList();
     }
 
     @Override
@@ -56,26 +101,45 @@ public class TagServiceImpl implements TagService {
         Tag tag = tagRepository.findById(tagId)
                 .orElseThrow(() -> new EntityNotFoundException("Тег не найден"));
         Optional.ofNullable(updateRequest.name()).ifPresent(tag::setName);
+        // Имя тега хранится в копиях задач, а перечислить задачи тега без запроса нельзя
+        cacheEvictionService.clearTasks();
+        cacheEvictionService.evictTagsForTasks();
+        dataVersionTracker.markChanged();
+        eventPublisher.publishEvent(ChangeEvent.tag(ChangeType.TAG_UPDATED, tagId));
         return tagMapper.toDto(tagRepository.save(tag));
     }
 
     @Override
     @Transactional
-    public void deleteTagAndTasks(Long tagId) {
+    public int deleteTagAndTasks(Long tagId) {
         log.info("Удаление тега: {}", tagId);
         Tag tag = tagRepository.findById(tagId)
                 .orElseThrow(() -> new EntityNotFoundException("Тег не найден: " + tagId));
 
-        List<Task> tasksToDelete = new ArrayList<>(tag.getTasks());
+        taskRepository.findTaskIdWithOtherTags(tagId)
+                .flatMap(taskRepository::findById)
+                .ifPresent(task -> {
+                    throw new TagExistException("Удаление невозможно! задача: " + task.getName() + ","
+                            + " содержит более одного тега " + task.getTags().stream().map(Tag::getName).toList());
+                });
+
+        // У удаляемых задач нет других тегов, поэтому счетчики остальных тегов не меняются
+        int deleted = 0;
+        int chunkDeleted;
+        do {
+            chunkDeleted = taskRepository.deleteTasksByTagId(tagId, DELETE_CHUNK_SIZE);
+            deleted += chunkDeleted;
+        } while (chunkDeleted > 0);
 
-        for (Task task : tasksToDelete) {
-            if (task.getTags().size() > 1) {
-                throw new TagExistException("Удаление невозможно! задача: " + task.getName() + ","
-                        + " содержит более одного тега " + task.getTags().stream().map(Tag::getName).toList());
-            }
+        tagRepository.deleteById(tagId);
+        cacheEvictionService.evictTagsForTasks();
+        cacheEvictionService.evictTasksByTag(tagId);
+        if (deleted > 0) {
+            cacheEvictionService.clearTasks();
         }
-        taskRepository.deleteAll(tasksToDelete);
-        tagRepository.delete(tag);
-        log.info("Тег {} успешно удален", tagId);
+        dataVersionTracker.markChanged();
+        eventPublisher.publishEvent(ChangeEvent.tag(ChangeType.TAG_DELETED, tagId));
+        log.info("Тег {} успешно удален вместе с задачами: {}", tagId, deleted);
+        return deleted;
     }
 }
\ No newline at end of file
@@ -0,0 +1,40 @@
+package ru.management.service.impl;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+import ru.management.dto.tag.TagResponse;
+import ru.management.dto.task.TaskResponse;
+import ru.management.repository.TaskRepository;
+import ru.management.repository.TaskRow;
+
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Сборка ответов со списком задач из проекций. Сущности не создаются, поэтому контекст не хранит
+ * их снимки и прокси коллекций; теги всех задач порции выбираются одним дополнительным запросом
+ */
+@Service
+@RequiredArgsConstructor
+public class TaskResponseAssembler {
+
+    private static final int TAG_QUERY_CHUNK_SIZE = 1000;
+
+    private final TaskRepository taskRepository;
+
+    public List<TaskResponse> toResponses(List<TaskRow> rows) {
+        List<Long> taskIds = rows.stream().map(TaskRow::id).distinct().toList();
+        Map<Long, Set<TagResponse>> tagsByTask = new HashMap<>();
+        for (int from = 0; from < taskIds.size(); from += TAG_QUERY_CHUNK_SIZE) {
+            taskRepository.findTagRowsByTaskIds(taskIds.subList(from, Math.min(from + TAG_QUERY_CHUNK_SIZE, taskIds.size())))
+                    .forEach(row -> tagsByTask.computeIfAbsent(row.taskId(), id -> new LinkedHashSet<>())
+                            .add(new TagResponse(row.tagId(), row.tagName(), row.tagTaskCount())));
+        }
+        return rows.stream()
+                .map(row -> row.toResponse(tagsByTask.getOrDefault(row.id(), Set.of())))
+                .toList();
+    }
+}
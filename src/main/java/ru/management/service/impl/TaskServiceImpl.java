@@ -1,44 +1,106 @@
 package ru.management.service.impl;
 
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import jakarta.persistence.EntityManager;
+import io.micrometer.core.annotation.Timed;
 import jakarta.persistence.EntityNotFoundException;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.ConstraintViolationException;
+import jakarta.validation.Validator;
 import jakarta.validation.constraints.NotNull;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.cache.annotation.Cacheable;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.multipart.MultipartFile;
+import ru.management.config.CacheNames;
+import ru.management.datasource.ReadFromPrimary;
+import ru.management.dto.change.ChangeEvent;
+import ru.management.dto.file.FileDownload;
+import ru.management.dto.task.TaskBatchItemResponse;
 import ru.management.dto.task.TaskCreateOrUpdateRequest;
+import ru.management.dto.task.TaskCursor;
+import ru.management.dto.task.TaskDayStatsResponse;
 import ru.management.dto.task.TaskPriorityResponse;
 import ru.management.dto.task.TaskResponse;
+import ru.management.dto.task.TaskScrollResponse;
+import ru.management.dto.task.TaskSearchCursor;
+import ru.management.dto.task.TaskTagBulkResponse;
 import ru.management.entity.Tag;
 import ru.management.entity.Task;
+import ru.management.entity.exception.InvalidPatchException;
+import ru.management.entity.exception.InvalidPeriodException;
+import ru.management.entity.exception.PreconditionFailedException;
+import ru.management.entity.exception.Violation;
+import ru.management.enums.ChangeType;
 import ru.management.enums.TaskPriority;
 import ru.management.mapper.TaskMapper;
 import ru.management.repository.TagRepository;
 import ru.management.repository.TaskRepository;
+import ru.management.repository.TaskRow;
+import ru.management.repository.TaskSearchHit;
+import ru.management.repository.TaskTagCounts;
 import ru.management.service.TaskService;
 
-import java.io.File;
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.lang.reflect.RecordComponent;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.time.LocalTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 @Service
 @Slf4j
 @RequiredArgsConstructor
+@Timed(value = "task.service", percentiles = {0.5, 0.95, 0.99})
 public class TaskServiceImpl implements TaskService {
 
+    private static final int EXPORT_CHUNK_SIZE = 100;
+    private static final int BATCH_CHUNK_SIZE = 1000;
+    private static final byte[] NDJSON_SEPARATOR = {'\n'};
+    private static final int MAX_STATS_DAYS = 366;
+    private static final Set<String> PATCH_FIELDS = Arrays.stream(TaskCreateOrUpdateRequest.class.getRecordComponents())
+            .map(RecordComponent::getName)
+            .collect(Collectors.toUnmodifiableSet());
+
     private final TaskRepository taskRepository;
     private final TaskMapper taskMapper;
     private final TagRepository tagRepository;
     private final FileSavedService fileSavedService;
+    private final EntityManager entityManager;
+    private final ObjectMapper objectMapper;
+    private final Validator validator;
+    private final CacheEvictionService cacheEvictionService;
+    private final DataVersionTracker dataVersionTracker;
+    private final TaskStatsCache taskStatsCache;
+    private final ApplicationEventPublisher eventPublisher;
+    private final TaskResponseAssembler taskResponseAssembler;
 
     public void uploadFile(Long taskId, MultipartFile file) {
         log.info("Сохранение файла к задаче: {}", file.getName());
@@ -48,7 +110,15 @@ public class TaskServiceImpl implements TaskService {
         fileSavedService.saveFile(taskId, file);
     }
 
-    public File downloadFile(Long taskId) throws IOException {
+    public void uploadFile(Long taskId, String filename, String contentType, InputStream content) {
+        log.info("Сохранение файла к задаче {}: {}", taskId, filename);
+        if (!taskRepository.existsById(taskId)) {
+            throw new EntityNotFoundException("Задача не найдена: " + taskId);
+        }
+        fileSavedService.saveFile(taskId, filename, contentType, content);
+    }
+
+    public FileDownload downloadFile(Long taskId) throws IOException {
         log.info("Скачивание файла к задаче: {}", taskId);
         if (!taskRepository.existsById(taskId)) {
             throw new EntityNotFoundException("Задача не найдена: " + taskId);
@@ -58,13 +128,81 @@ public class TaskServiceImpl implements TaskService {
 
     @Override
     @Transactional(readOnly = true)
+    @ReadFromPrimary
     public Page<TaskResponse> getAllTasks(Pageable pageable) {
         log.info("Получение всех задач");
-        return taskRepository.findAll(pageable).map(taskMapper::toDto);
+        Page<TaskRow> page = taskRepository.findAllRows(pageable);
+        return new PageImpl<>(taskResponseAssembler.toResponses(page.getContent()), page.getPageable(),
+                page.getTotalElements());
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public TaskScrollResponse scrollTasks(String cursor, int size, boolean withTotal) {
+        log.info("Получение порции задач по курсору");
+        TaskCursor position = cursor == null || cursor.isBlank() ? null : TaskCursor.decode(cursor);
+        int limit = size + 1;
+
+        List<Task> tasks = new ArrayList<>(limit);
+        if (position == null) {
+            tasks.addAll(taskRepository.findFirstScheduled(limit));
+        } else if (position.scheduledDate() != null) {
+            tasks.addAll(taskRepository.findNextScheduled(position.scheduledDate(), position.id(), limit));
+        }
+        if (tasks.size() < limit) {
+            long afterId = position != null && position.scheduledDate() == null ? position.id() : 0L;
+            tasks.addAll(taskRepository.findNextUnscheduled(afterId, limit - tasks.size()));
+        }
+
+        boolean hasNext = tasks.size() > size;
+        List<Task> content = hasNext ? tasks.subList(0, size) : tasks;
+        String nextCursor = hasNext ? TaskCursor.of(content.get(content.size() - 1)).encode() : null;
+        Long total = withTotal ? taskRepository.count() : null;
+        return new TaskScrollResponse(taskMapper.entityListToResponseList(content), nextCursor, total);
     }
 
     @Override
-    @Cacheable("TaskPriority")
+    @Transactional(readOnly = true)
+    @ReadFromPrimary
+    public TaskScrollResponse searchTasks(String query, Long tagId, LocalDate startDate, LocalDate endDate,
+                                          String cursor, int size) {
+        log.info("Поиск задач по тексту");
+        TaskSearchCursor position = cursor == null || cursor.isBlank() ? null : TaskSearchCursor.decode(cursor);
+        List<TaskSearchHit> hits = taskRepository.search(query, tagId,
+                Optional.ofNullable(startDate).map(date -> date.atTime(LocalTime.MIN)).orElse(null),
+                Optional.ofNullable(endDate).map(date -> date.atTime(LocalTime.MAX)).orElse(null),
+                position == null ? null : position.rank(),
+                position == null ? 0L : position.id(),
+                size + 1);
+
+        boolean hasNext = hits.size() > size;
+        List<TaskSearchHit> page = hasNext ? hits.subList(0, size) : hits;
+        Map<Long, Task> tasks = taskRepository.findAllById(page.stream().map(TaskSearchHit::getId).toList())
+                .stream()
+                .collect(Collectors.toMap(Task::getId, Function.identity()));
+        List<Task> content = page.stream()
+                .map(hit -> tasks.get(hit.getId()))
+                .filter(Objects::nonNull)
+                .toList();
+
+        TaskSearchHit last = page.isEmpty() ? null : page.get(page.size() - 1);
+        String nextCursor = hasNext ? new TaskSearchCursor(last.getRank(), last.getId()).encode() : null;
+        return new TaskScrollResponse(taskMapper.entityListToResponseList(content), nextCursor, null);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    @ReadFromPrimary
+    @Cacheable(cacheNames = CacheNames.TASK, key = "#taskId")
+    public TaskResponse getTask(Long taskId) {
+        log.info("Получение задачи: {}", taskId);
+        return taskRepository.findById(taskId)
+                .map(taskMapper::toDto)
+                .orElseThrow(() -> new EntityNotFoundException("Задача не найдена: " + taskId));
+    }
+
+    @Override
+    @Cacheable(CacheNames.TASK_PRIORITY)
     @Transactional(readOnly = true)
     public List<TaskPriorityResponse> getAllPriorities() {
         log.info("Получение возможных приоритетов к задаче");
@@ -74,30 +212,187 @@ public class TaskServiceImpl implements TaskService {
     }
 
     @Transactional(readOnly = true)
+    @ReadFromPrimary
+    @Cacheable(cacheNames = CacheNames.TASKS_BY_TAG, key = "#tagId")
     public List<TaskResponse> getAllTasksByTagId(Long tagId) {
         log.info("Получение всех задач по тегу");
-        if (!tagRepository.existsById(tagId)) {
+        // Тег берется из кэша второго уровня, existsById всегда выполняет запрос
+        if (tagRepository.findById(tagId).isEmpty()) {
             throw new EntityNotFoundException("Тег не найден: " + tagId);
         }
-        return taskMapper.entityListToResponseList(taskRepository.findTaskByTagIdOrderByPriorityByDesc(tagId));
+        return taskResponseAssembler.toResponses(taskRepository.findRowsByTagIdOrderByPriorityDesc(tagId));
     }
 
     @Transactional(readOnly = true)
+    @ReadFromPrimary
     public List<TaskResponse> getAllTasksBetweenDateByPriorityDesc(LocalDate startDate, LocalDate endDate) {
         log.info("Получение всех задач за период");
         LocalDateTime start = startDate.atTime(LocalTime.MIN);
         LocalDateTime end = endDate.atTime(LocalTime.MAX);
-        return taskRepository.findByTasksBetweenDateByPriorityDesc(start, end)
-                .stream()
-                .map(taskMapper::toDto)
-                .toList();
+        return taskResponseAssembler.toResponses(taskRepository.findRowsBetweenDateByPriorityDesc(start, end));
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    @ReadFromPrimary
+    public List<TaskDayStatsResponse> getTaskStats(LocalDate startDate, LocalDate endDate, Long tagId) {
+        log.info("Получение статистики задач за период");
+        if (endDate.isBefore(startDate) || ChronoUnit.DAYS.between(startDate, endDate) >= MAX_STATS_DAYS) {
+            throw new InvalidPeriodException("Период должен начинаться не позже окончания и быть не длиннее "
+                    + MAX_STATS_DAYS + " дней");
+        }
+        LocalDate today = LocalDate.now();
+        List<TaskDayStatsResponse> stats = new ArrayList<>();
+        LocalDate pastEnd = endDate.isBefore(today) ? endDate : today.minusDays(1);
+        if (!startDate.isAfter(pastEnd)) {
+            stats.addAll(getPastDayStats(startDate, pastEnd, tagId));
+        }
+        LocalDate currentStart = startDate.isAfter(today) ? startDate : today;
+        if (!currentStart.isAfter(endDate)) {
+            stats.addAll(countByDay(currentStart, endDate, tagId));
+        }
+        return stats;
+    }
+
+    /**
+     * Статистика прошедших дней берется из кэша, недостающие дни считаются одним запросом
+     * от первого до последнего пропуска и кладутся в кэш, включая дни без задач
+     */
+    private List<TaskDayStatsResponse> getPastDayStats(LocalDate startDate, LocalDate endDate, Long tagId) {
+        Map<LocalDate, List<TaskDayStatsResponse>> statsByDay = new TreeMap<>();
+        LocalDate firstMissing = null;
+        LocalDate lastMissing = null;
+        for (LocalDate day = startDate; !day.isAfter(endDate); day = day.plusDays(1)) {
+            Optional<List<TaskDayStatsResponse>> cached = taskStatsCache.get(day, tagId);
+            if (cached.isPresent()) {
+                statsByDay.put(day, cached.get());
+            } else {
+                firstMissing = firstMissing == null ? day : firstMissing;
+                lastMissing = day;
+            }
+        }
+        if (firstMissing != null) {
+            Map<LocalDate, List<TaskDayStatsResponse>> loaded = countByDay(firstMissing, lastMissing, tagId).stream()
+                    .collect(Collectors.groupingBy(TaskDayStatsResponse::day));
+            for (LocalDate day = firstMissing; !day.isAfter(lastMissing); day = day.plusDays(1)) {
+                if (!statsByDay.containsKey(day)) {
+                    List<TaskDayStatsResponse> dayStats = loaded.getOrDefault(day, List.of());
+                    taskStatsCache.put(day, tagId, dayStats);
+                    statsByDay.put(day, dayStats);
+                }
+            }
+        }
+        return statsByDay.values().stream().flatMap(List::stream).toList();
+    }
+
+    private List<TaskDayStatsResponse> countByDay(LocalDate startDate, LocalDate endDate, Long tagId) {
+        return taskRepository.countByDayAndPriority(
+                startDate.atStartOfDay(), endDate.plusDays(1).atStartOfDay(), tagId);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public void exportTasksBetweenDateByPriorityDesc(LocalDate startDate, LocalDate endDate,
+                                                     OutputStream outputStream) throws IOException {
+        log.info("Выгрузка всех задач за период");
+        LocalDateTime start = startDate.atTime(LocalTime.MIN);
+        LocalDateTime end = endDate.atTime(LocalTime.MAX);
+        ObjectWriter writer = objectMapper.writerFor(TaskResponse.class);
+
+        try (Stream<Task> tasks = taskRepository.streamByTasksBetweenDateByPriorityDesc(start, end)) {
+            Iterator<Task> iterator = tasks.iterator();
+            List<Task> chunk = new ArrayList<>(EXPORT_CHUNK_SIZE);
+            while (iterator.hasNext()) {
+                chunk.add(iterator.next());
+                if (chunk.size() == EXPORT_CHUNK_SIZE) {
+                    writeChunk(chunk, writer, outputStream);
+                }
+            }
+            writeChunk(chunk, writer, outputStream);
+        }
+    }
+
+    /**
+     * Записать порцию задач и отсоединить их от контекста, чтобы память не росла вместе с периодом.
+     * Теги порции подгружаются одним запросом за счет пакетной загрузки коллекции
+     */
+    private void writeChunk(List<Task> chunk, ObjectWriter writer, OutputStream outputStream) throws IOException {
+        for (TaskResponse response : taskMapper.entityListToResponseList(chunk)) {
+            outputStream.write(writer.writeValueAsBytes(response));
+            outputStream.write(NDJSON_SEPARATOR);
+        }
+        outputStream.flush();
+        chunk.clear();
+        entityManager.clear();
     }
 
     @Override
     @Transactional
     public TaskResponse createTask(TaskCreateOrUpdateRequest task) {
         log.info("Сохранение задачи: {}", task.name());
-        return taskMapper.toDto(taskRepository.save(taskMapper.toEntity(task)));
+        cacheEvictionService.evictTaskStats(task.scheduledDate());
+        dataVersionTracker.markChanged();
+        Task saved = taskRepository.save(taskMapper.toEntity(task));
+        eventPublisher.publishEvent(ChangeEvent.task(ChangeType.TASK_CREATED, saved.getId()));
+        return taskMapper.toDto(saved);
+    }
+
+    @Override
+    @Transactional
+    public List<TaskBatchItemResponse> createTasks(List<TaskCreateOrUpdateRequest> tasks) {
+        log.info("Пакетное сохранение задач: {}", tasks.size());
+        dataVersionTracker.markChanged();
+        TaskBatchItemResponse[] results = new TaskBatchItemResponse[tasks.size()];
+        List<Task> chunk = new ArrayList<>(BATCH_CHUNK_SIZE);
+        List<Integer> chunkIndexes = new ArrayList<>(BATCH_CHUNK_SIZE);
+        Set<LocalDate> days = new HashSet<>();
+
+        for (int i = 0; i < tasks.size(); i++) {
+            TaskCreateOrUpdateRequest request = tasks.get(i);
+            List<Violation> violations = validate(request);
+            if (!violations.isEmpty()) {
+                results[i] = TaskBatchItemResponse.rejected(i, violations);
+                continue;
+            }
+            chunk.add(taskMapper.toEntity(request));
+            chunkIndexes.add(i);
+            Optional.ofNullable(request.scheduledDate()).map(LocalDateTime::toLocalDate).ifPresent(days::add);
+            if (chunk.size() == BATCH_CHUNK_SIZE) {
+                saveChunk(chunk, chunkIndexes, results);
+            }
+        }
+        saveChunk(chunk, chunkIndexes, results);
+        cacheEvictionService.evictTaskStats(days);
+        eventPublisher.publishEvent(ChangeEvent.task(ChangeType.TASKS_CREATED, null));
+        return Arrays.asList(results);
+    }
+
+    private List<Violation> validate(TaskCreateOrUpdateRequest request) {
+        if (request == null) {
+            return List.of(new Violation("task", "Задача не должна быть пустой"));
+        }
+        return validator.validate(request).stream()
+                .map(violation -> new Violation(violation.getPropertyPath().toString(), violation.getMessage()))
+                .toList();
+    }
+
+    /**
+     * Сохранить порцию задач одним сбросом контекста: вставки уходят JDBC пакетами,
+     * идентификаторы выдаются из последовательности без обращения к базе на каждую задачу
+     */
+    private void saveChunk(List<Task> chunk, List<Integer> chunkIndexes, TaskBatchItemResponse[] results) {
+        if (chunk.isEmpty()) {
+            return;
+        }
+        List<Task> saved = taskRepository.saveAll(chunk);
+        entityManager.flush();
+        for (int i = 0; i < saved.size(); i++) {
+            int index = chunkIndexes.get(i);
+            results[index] = TaskBatchItemResponse.created(index, taskMapper.toDto(saved.get(i)));
+        }
+        entityManager.clear();
+        chunk.clear();
+        chunkIndexes.clear();
     }
 
     @Override
@@ -106,23 +401,114 @@ public class TaskServiceImpl implements TaskService {
         log.info("Обновление задачи: {}", updateRequest.name());
         Task task = taskRepository.findById(taskId)
                 .orElseThrow(() -> new EntityNotFoundException("Задача не найдена id " + taskId));
+        cacheEvictionService.evictTaskStats(task.getScheduledDate());
 
         Optional.ofNullable(updateRequest.name()).ifPresent(task::setName);
         Optional.ofNullable(updateRequest.description()).ifPresent(task::setDescription);
         Optional.ofNullable(updateRequest.scheduledDate()).ifPresent(task::setScheduledDate);
         Optional.ofNullable(updateRequest.priority()).ifPresent(task::setPriority);
 
+        cacheEvictionService.evictTask(taskId, tagIds(task));
+        cacheEvictionService.evictTaskStats(task.getScheduledDate());
+        dataVersionTracker.markChanged();
+        eventPublisher.publishEvent(ChangeEvent.task(ChangeType.TASK_UPDATED, taskId));
         return taskMapper.toDto(taskRepository.save(task));
     }
 
+    @Override
+    @Transactional
+    public TaskResponse patchTask(Long taskId, JsonNode patch, Long expectedVersion) {
+        log.info("Частичное обновление задачи: {}", taskId);
+        Task task = taskRepository.findById(taskId)
+                .orElseThrow(() -> new EntityNotFoundException("Задача не найдена id " + taskId));
+        if (expectedVersion != null && !expectedVersion.equals(task.getVersion())) {
+            throw new PreconditionFailedException("Текущая версия задачи " + task.getVersion()
+                    + " не совпадает с версией из If-Match " + expectedVersion);
+        }
+        TaskCreateOrUpdateRequest patched = applyMergePatch(task, patch);
+
+        LocalDateTime previousDate = task.getScheduledDate();
+        boolean changed = setIfChanged(task.getName(), patched.name(), task::setName)
+                | setIfChanged(task.getDescription(), patched.description(), task::setDescription)
+                | setIfChanged(task.getScheduledDate(), patched.scheduledDate(), task::setScheduledDate)
+                | setIfChanged(task.getPriority(), patched.priority(), task::setPriority);
+        if (changed) {
+            cacheEvictionService.evictTask(taskId, tagIds(task));
+            cacheEvictionService.evictTaskStats(previousDate);
+            cacheEvictionService.evictTaskStats(task.getScheduledDate());
+            dataVersionTracker.markChanged();
+            eventPublisher.publishEvent(ChangeEvent.task(ChangeType.TASK_UPDATED, taskId));
+            // Сброс внутри метода: ответ получит новую версию, а конфликт версий вернется отсюда, а не при фиксации
+            taskRepository.saveAndFlush(task);
+        }
+        return taskMapper.toDto(task);
+    }
+
+    /**
+     * Применить JSON Merge Patch к текущим значениям задачи. Проверяются только поля из патча,
+     * чтобы, например, прошедшая дата завершения не мешала сменить приоритет
+     */
+    private TaskCreateOrUpdateRequest applyMergePatch(Task task, JsonNode patch) {
+        if (patch == null || !patch.isObject()) {
+            throw new InvalidPatchException("Тело запроса должно быть JSON объектом");
+        }
+        ObjectNode target = objectMapper.valueToTree(new TaskCreateOrUpdateRequest(
+                task.getName(), task.getDescription(), task.getScheduledDate(), task.getPriority()));
+        List<String> fields = new ArrayList<>();
+        patch.fieldNames().forEachRemaining(fields::add);
+        for (String field : fields) {
+            if (!PATCH_FIELDS.contains(field)) {
+                throw new InvalidPatchException("Поле нельзя изменить: " + field);
+            }
+            JsonNode value = patch.get(field);
+            if (value.isNull()) {
+                target.remove(field);
+            } else {
+                target.set(field, value);
+            }
+        }
+
+        TaskCreateOrUpdateRequest patched;
+        try {
+            patched = objectMapper.treeToValue(target, TaskCreateOrUpdateRequest.class);
+        } catch (JsonProcessingException | IllegalArgumentException e) {
+            throw new InvalidPatchException("Некорректное значение поля задачи");
+        }
+        Set<ConstraintViolation<TaskCreateOrUpdateRequest>> violations = new HashSet<>();
+        fields.forEach(field -> violations.addAll(validator.validateProperty(patched, field)));
+        if (!violations.isEmpty()) {
+            throw new ConstraintViolationException(violations);
+        }
+        return patched;
+    }
+
+    private <T> boolean setIfChanged(T current, T value, Consumer<T> setter) {
+        if (Objects.equals(current, value)) {
+            return false;
+        }
+        setter.accept(value);
+        return true;
+    }
+
     @Override
     @Transactional
     public void deleteTask(Long taskId) {
         log.info("Удаление задачи: {}", taskId);
-        if (!taskRepository.existsById(taskId)) {
-            throw new EntityNotFoundException("Задача не найдена с id: " + taskId);
+        Task task = taskRepository.findById(taskId)
+                .orElseThrow(() -> new EntityNotFoundException("Задача не найдена с id: " + taskId));
+        if (task.getTags().isEmpty()) {
+            cacheEvictionService.evictTask(taskId, List.of());
+        } else {
+            cacheEvictionService.clearTaskResponses();
+            cacheEvictionService.evictTagsForTasks();
+            cacheEvictionService.evictTags(tagIds(task));
         }
+        cacheEvictionService.evictTaskStats(task.getScheduledDate());
+        dataVersionTracker.markChanged();
+        tagRepository.decrementTaskCountForTask(taskId);
+        fileSavedService.releaseTaskFiles(taskId);
         taskRepository.deleteById(taskId);
+        eventPublisher.publishEvent(ChangeEvent.task(ChangeType.TASK_DELETED, taskId));
         log.info("Задача {} успешно удалена", taskId);
     }
 
@@ -135,7 +521,17 @@ public class TaskServiceImpl implements TaskService {
         Tag tag = tagRepository.findById(tagId)
                 .orElseThrow(() -> new EntityNotFoundException("Тег с id " + tagId + " не найден"));
 
-        task.getTags().add(tag);
+        if (task.getTags().add(tag)) {
+            tagRepository.changeTaskCount(tagId, 1);
+            // Запрос идет в обход контекста, счетчик загруженного тега меняется вместе с ним для ответа
+            tag.setTaskCount(tag.getTaskCount() + 1);
+            cacheEvictionService.clearTaskResponses();
+            cacheEvictionService.evictTagsForTasks();
+            cacheEvictionService.evictTags(List.of(tagId));
+            cacheEvictionService.evictTaskStats(task.getScheduledDate());
+            dataVersionTracker.markChanged();
+            eventPublisher.publishEvent(ChangeEvent.link(ChangeType.TAG_LINKED, taskId, tagId));
+        }
         return taskMapper.toDto(taskRepository.save(task));
     }
 
@@ -150,7 +546,78 @@ public class TaskServiceImpl implements TaskService {
         if (!task.getTags().contains(tag)) {
             throw new IllegalStateException("У задачи не существует указанный тег");
         }
+        cacheEvictionService.clearTaskResponses();
+        cacheEvictionService.evictTagsForTasks();
+        cacheEvictionService.evictTags(List.of(tagId));
+        cacheEvictionService.evictTaskStats(task.getScheduledDate());
+        dataVersionTracker.markChanged();
         task.getTags().remove(tag);
+        tagRepository.changeTaskCount(tagId, -1);
+        tag.setTaskCount(tag.getTaskCount() - 1);
+        eventPublisher.publishEvent(ChangeEvent.link(ChangeType.TAG_UNLINKED, taskId, tagId));
         return taskMapper.toDto(taskRepository.save(task));
     }
+
+    @Override
+    @Transactional
+    public TaskTagBulkResponse linkTags(Set<Long> taskIds, Set<Long> tagIds) {
+        log.info("Пакетное добавление тегов {} к задачам: {}", tagIds, taskIds.size());
+        Long[] taskIdArray = taskIds.toArray(Long[]::new);
+        Long[] tagIdArray = tagIds.toArray(Long[]::new);
+        requireTasksAndTags(taskIdArray, tagIdArray);
+        int linked = Math.toIntExact(taskRepository.linkTags(taskIdArray, tagIdArray));
+        onLinksChanged(linked, tagIds, ChangeType.TAGS_LINKED);
+        return new TaskTagBulkResponse(linked);
+    }
+
+    @Override
+    @Transactional
+    public TaskTagBulkResponse unlinkTags(Set<Long> taskIds, Set<Long> tagIds) {
+        log.info("Пакетное удаление тегов {} у задач: {}", tagIds, taskIds.size());
+        Long[] taskIdArray = taskIds.toArray(Long[]::new);
+        Long[] tagIdArray = tagIds.toArray(Long[]::new);
+        requireTasksAndTags(taskIdArray, tagIdArray);
+        int unlinked = Math.toIntExact(taskRepository.unlinkTags(taskIdArray, tagIdArray));
+        onLinksChanged(unlinked, tagIds, ChangeType.TAGS_UNLINKED);
+        return new TaskTagBulkResponse(unlinked);
+    }
+
+    /**
+     * Проверка существования всех задач и тегов одним запросом, недостающие id ищутся только при ошибке
+     */
+    private void requireTasksAndTags(Long[] taskIds, Long[] tagIds) {
+        TaskTagCounts counts = taskRepository.lockTasksAndTags(taskIds, tagIds);
+        if (counts.getTasks() != taskIds.length) {
+            throw new EntityNotFoundException("Задачи не найдены: "
+                    + missingIds(taskIds, taskRepository.findExistingIds(Arrays.asList(taskIds))));
+        }
+        if (counts.getTags() != tagIds.length) {
+            throw new EntityNotFoundException("Теги не найдены: "
+                    + missingIds(tagIds, tagRepository.findExistingIds(Arrays.asList(tagIds))));
+        }
+    }
+
+    private Set<Long> missingIds(Long[] requested, List<Long> existing) {
+        Set<Long> missing = new TreeSet<>(Arrays.asList(requested));
+        existing.forEach(missing::remove);
+        return missing;
+    }
+
+    /**
+     * Связи изменены в обход контекста, поэтому перечислить затронутые задачи без запроса нельзя
+     */
+    private void onLinksChanged(int affected, Set<Long> tagIds, ChangeType type) {
+        if (affected == 0) {
+            return;
+        }
+        cacheEvictionService.clearTasks();
+        cacheEvictionService.evictTagsForTasks();
+        cacheEvictionService.evictTags(tagIds);
+        dataVersionTracker.markChanged();
+        eventPublisher.publishEvent(new ChangeEvent(type, null, null));
+    }
+
+    private List<Long> tagIds(Task task) {
+        return task.getTags().stream().map(Tag::getId).toList();
+    }
 }
\ No newline at end of file
@@ -0,0 +1,85 @@
+package ru.management.service.impl;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.transaction.TransactionAwareCacheDecorator;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import ru.management.config.CacheNames;
+import ru.management.dto.task.TaskDayStatsResponse;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Кэш статистики задач за прошедшие дни с ключом (день, тег)
+ */
+@Service
+@RequiredArgsConstructor
+public class TaskStatsCache {
+
+    private final CacheManager cacheManager;
+
+    @SuppressWarnings("unchecked")
+    public Optional<List<TaskDayStatsResponse>> get(LocalDate day, Long tagId) {
+        return cache()
+                .map(cache -> cache.get(new StatsKey(day, tagId)))
+                .map(value -> (List<TaskDayStatsResponse>) value.get());
+    }
+
+    public void put(LocalDate day, Long tagId, List<TaskDayStatsResponse> stats) {
+        cache().ifPresent(cache -> cache.put(new StatsKey(day, tagId), stats));
+    }
+
+    /**
+     * Очистить статистику дня по всем тегам после фиксации транзакции.
+     * Ключи дня перебираются тоже после фиксации: снятый раньше список пропустил бы ключи,
+     * положенные параллельным чтением до фиксации
+     *
+     * @param day - день
+     */
+    public void evictDay(LocalDate day) {
+        afterCommit(() -> cache().map(TaskStatsCache::targetCache).ifPresent(cache -> {
+            if (cache.getNativeCache() instanceof com.github.benmanes.caffeine.cache.Cache<?, ?> nativeCache) {
+                nativeCache.asMap().keySet()
+                        .removeIf(key -> key instanceof StatsKey statsKey && statsKey.day().equals(day));
+            } else {
+                cache.clear();
+            }
+        }));
+    }
+
+    public void clear() {
+        cache().ifPresent(Cache::clear);
+    }
+
+    private Optional<Cache> cache() {
+        return Optional.ofNullable(cacheManager.getCache(CacheNames.TASK_STATS));
+    }
+
+    /**
+     * Очистка выполняется уже после фиксации, поэтому идет мимо транзакционной обертки кэша
+     */
+    private static Cache targetCache(Cache cache) {
+        return cache instanceof TransactionAwareCacheDecorator decorator ? decorator.getTargetCache() : cache;
+    }
+
+    private static void afterCommit(Runnable eviction) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            eviction.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                eviction.run();
+            }
+        });
+    }
+
+    private record StatsKey(LocalDate day, Long tagId) {
+    }
+}
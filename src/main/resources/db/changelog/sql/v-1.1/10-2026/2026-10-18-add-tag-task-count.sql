@@ -0,0 +1,10 @@
+-- liquibase formatted sql
+
+-- changeset Alexandr_Makutsevich:8
+ALTER TABLE tags ADD COLUMN task_count INTEGER NOT NULL DEFAULT 0;
+UPDATE tags SET task_count = (SELECT COUNT(*) FROM task_tags tt WHERE tt.tag_id = tags.id);
+-- rollback ALTER TABLE tags DROP COLUMN task_count;
+
+-- changeset Alexandr_Makutsevich:9
+CREATE INDEX IF NOT EXISTS idx_tags_task_count ON tags (task_count);
+-- rollback DROP INDEX IF EXISTS idx_tags_task_count;
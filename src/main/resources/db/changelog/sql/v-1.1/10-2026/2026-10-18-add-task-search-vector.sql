@@ -0,0 +1,13 @@
+-- liquibase formatted sql
+
+-- changeset Alexandr_Makutsevich:14 dbms:postgresql
+ALTER TABLE tasks ADD COLUMN IF NOT EXISTS search_vector tsvector
+    GENERATED ALWAYS AS (
+        setweight(to_tsvector('russian', coalesce(name, '')), 'A')
+            || setweight(to_tsvector('russian', coalesce(description, '')), 'B')
+    ) STORED;
+-- rollback ALTER TABLE tasks DROP COLUMN IF EXISTS search_vector;
+
+-- changeset Alexandr_Makutsevich:15 dbms:postgresql
+CREATE INDEX IF NOT EXISTS idx_tasks_search_vector ON tasks USING GIN (search_vector);
+-- rollback DROP INDEX IF EXISTS idx_tasks_search_vector;
@@ -0,0 +1,5 @@
+-- liquibase formatted sql
+
+-- changeset Alexandr_Makutsevich:19
+ALTER TABLE tasks ADD COLUMN version BIGINT NOT NULL DEFAULT 0;
+-- rollback ALTER TABLE tasks DROP COLUMN version;
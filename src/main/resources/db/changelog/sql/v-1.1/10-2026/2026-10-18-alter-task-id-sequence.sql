@@ -0,0 +1,9 @@
+-- liquibase formatted sql
+
+-- changeset Alexandr_Makutsevich:7 dbms:postgresql
+ALTER SEQUENCE tasks_id_seq INCREMENT BY 50;
+-- rollback ALTER SEQUENCE tasks_id_seq INCREMENT BY 1;
+
+-- changeset Alexandr_Makutsevich:13 dbms:h2
+CREATE SEQUENCE IF NOT EXISTS tasks_id_seq START WITH 100 INCREMENT BY 50;
+-- rollback DROP SEQUENCE IF EXISTS tasks_id_seq;
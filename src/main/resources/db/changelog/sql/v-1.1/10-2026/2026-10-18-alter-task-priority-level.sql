@@ -0,0 +1,23 @@
+-- liquibase formatted sql
+
+-- changeset Alexandr_Makutsevich:16
+ALTER TABLE tasks ADD COLUMN priority_level SMALLINT;
+UPDATE tasks SET priority_level = CASE priority
+    WHEN 'USUAL' THEN 1
+    WHEN 'IMPORTANT' THEN 5
+    WHEN 'URGENT' THEN 10
+END;
+ALTER TABLE tasks ALTER COLUMN priority_level SET NOT NULL;
+ALTER TABLE tasks DROP COLUMN priority;
+-- rollback ALTER TABLE tasks ADD COLUMN priority VARCHAR(20);
+-- rollback UPDATE tasks SET priority = CASE priority_level WHEN 1 THEN 'USUAL' WHEN 5 THEN 'IMPORTANT' WHEN 10 THEN 'URGENT' END;
+-- rollback ALTER TABLE tasks ALTER COLUMN priority SET NOT NULL;
+-- rollback ALTER TABLE tasks DROP COLUMN priority_level;
+
+-- changeset Alexandr_Makutsevich:17
+CREATE INDEX IF NOT EXISTS idx_tasks_scheduled_date_priority ON tasks (scheduled_date, priority_level);
+-- rollback DROP INDEX IF EXISTS idx_tasks_scheduled_date_priority;
+
+-- changeset Alexandr_Makutsevich:18
+CREATE INDEX IF NOT EXISTS idx_task_tags_tag_id_task_id ON task_tags (tag_id, task_id);
+-- rollback DROP INDEX IF EXISTS idx_task_tags_tag_id_task_id;
@@ -0,0 +1,16 @@
+-- liquibase formatted sql
+
+-- changeset Alexandr_Makutsevich:11
+CREATE TABLE IF NOT EXISTS attachment_blobs (
+    checksum VARCHAR(64) PRIMARY KEY NOT NULL,
+    file_size BIGINT NOT NULL,
+    ref_count INTEGER NOT NULL DEFAULT 0,
+    created_at TIMESTAMP NOT NULL
+);
+CREATE INDEX IF NOT EXISTS idx_attachments_storage_key ON attachments (storage_key);
+-- rollback DROP INDEX IF EXISTS idx_attachments_storage_key;
+-- rollback DROP TABLE IF EXISTS attachment_blobs;
+
+-- changeset Alexandr_Makutsevich:12 dbms:postgresql
+ALTER TABLE attachments DROP CONSTRAINT IF EXISTS attachments_storage_key_key;
+-- rollback ALTER TABLE attachments ADD CONSTRAINT attachments_storage_key_key UNIQUE (storage_key);
@@ -0,0 +1,16 @@
+-- liquibase formatted sql
+
+-- changeset Alexandr_Makutsevich:10
+CREATE TABLE IF NOT EXISTS attachments (
+    id BIGSERIAL PRIMARY KEY NOT NULL,
+    task_id BIGINT NOT NULL,
+    storage_key VARCHAR(64) NOT NULL UNIQUE,
+    original_filename VARCHAR(255) NOT NULL,
+    file_size BIGINT NOT NULL,
+    content_type VARCHAR(255),
+    checksum VARCHAR(64) NOT NULL,
+    created_at TIMESTAMP NOT NULL,
+    FOREIGN KEY (task_id) REFERENCES tasks(id) ON DELETE CASCADE
+);
+CREATE INDEX IF NOT EXISTS idx_attachments_task_id ON attachments (task_id, id);
+-- rollback DROP TABLE IF EXISTS attachments;
@@ -0,0 +1,5 @@
+-- liquibase formatted sql
+
+-- changeset Alexandr_Makutsevich:6
+CREATE INDEX IF NOT EXISTS idx_tasks_scheduled_date_id ON tasks (scheduled_date, id);
+-- rollback DROP INDEX IF EXISTS idx_tasks_scheduled_date_id;
@@ -0,0 +1,58 @@
+package ru.management.config;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.autoconfigure.cache.CacheProperties;
+import org.springframework.cache.Cache;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+@DisplayName("Тестирование очистки кэша после фиксации транзакции")
+class CacheConfigTest {
+
+    private Cache cache;
+    private TransactionTemplate transaction;
+
+    @BeforeEach
+    void setUp() {
+        CacheProperties cacheProperties = new CacheProperties();
+        cacheProperties.setCacheNames(List.of(CacheNames.TASK));
+        cache = new CacheConfig().cacheManager(cacheProperties).getCache(CacheNames.TASK);
+        transaction = new TransactionTemplate(new DataSourceTransactionManager(new DriverManagerDataSource(
+                "jdbc:h2:mem:cache-" + UUID.randomUUID() + ";DB_CLOSE_DELAY=-1", "sa", "")));
+        cache.put(1L, "задача");
+    }
+
+    @Test
+    @org.junit.jupiter.api.Tag("Позитивный")
+    @DisplayName("Очистка в транзакции выполняется только после фиксации")
+    void givenCommittedWrite_whenEvict_thenEvictAfterCommit() {
+        transaction.executeWithoutResult(status -> {
+            cache.evict(1L);
+            assertEquals("задача", cache.get(1L).get());
+        });
+
+        assertNull(cache.get(1L));
+    }
+
+    @Test
+    @org.junit.jupiter.api.Tag("Негативный")
+    @DisplayName("Откаченная транзакция не очищает кэш")
+    void givenRolledBackWrite_whenEvict_thenKeepCache() {
+        transaction.executeWithoutResult(status -> {
+            cache.evict(1L);
+            cache.clear();
+            status.setRollbackOnly();
+        });
+
+        assertEquals("задача", cache.get(1L).get());
+    }
+}
@@ -0,0 +1,118 @@
+package ru.management.config;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.authentication.BadCredentialsException;
+import org.springframework.security.authentication.DisabledException;
+import org.springframework.security.authentication.LockedException;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.userdetails.User;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.security.provisioning.InMemoryUserDetailsManager;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@DisplayName("Тестирование кэша успешной аутентификации")
+class CachingAuthenticationProviderTest {
+
+    private PasswordEncoder passwordEncoder;
+    private InMemoryUserDetailsManager userDetailsManager;
+    private CachingAuthenticationProvider provider;
+
+    @BeforeEach
+    void setUp() {
+        passwordEncoder = spy(PasswordEncoder.class);
+        doAnswer(invocation -> "{raw}" + invocation.getArgument(0)).when(passwordEncoder).encode(any());
+        doAnswer(invocation -> ("{raw}" + invocation.getArgument(0)).equals(invocation.getArgument(1)))
+                .when(passwordEncoder).matches(any(), any());
+
+        userDetailsManager = new InMemoryUserDetailsManager(
+                User.builder().username("admin").password(passwordEncoder.encode("admin")).roles("ADMIN").build());
+        provider = new CachingAuthenticationProvider(Duration.ofMinutes(1), 100);
+        provider.setUserDetailsService(userDetailsManager);
+        provider.setPasswordEncoder(passwordEncoder);
+    }
+
+    @Test
+    @org.junit.jupiter.api.Tag("Позитивный")
+    @DisplayName("Повторный запрос с тем же паролем не проверяет хэш")
+    void givenCachedCredentials_whenAuthenticate_thenSkipPasswordCheck() {
+        Authentication first = provider.authenticate(UsernamePasswordAuthenticationToken.unauthenticated("admin", "admin"));
+        Authentication second = provider.authenticate(UsernamePasswordAuthenticationToken.unauthenticated("admin", "admin"));
+
+        assertTrue(second.isAuthenticated());
+        assertEquals(first.getName(), second.getName());
+        assertEquals(first.getAuthorities(), second.getAuthorities());
+        verify(passwordEncoder, times(1)).matches(any(), any());
+    }
+
+    @Test
+    @org.junit.jupiter.api.Tag("Негативный")
+    @DisplayName("Неверный пароль после успешного входа отклоняется")
+    void givenCachedCredentials_whenWrongPassword_thenThrowException() {
+        provider.authenticate(UsernamePasswordAuthenticationToken.unauthenticated("admin", "admin"));
+
+        assertThrows(BadCredentialsException.class,
+                () -> provider.authenticate(UsernamePasswordAuthenticationToken.unauthenticated("admin", "wrong")));
+        assertThrows(BadCredentialsException.class,
+                () -> provider.authenticate(UsernamePasswordAuthenticationToken.unauthenticated("admin", "wrong")));
+        verify(passwordEncoder, times(3)).matches(any(), any());
+    }
+
+    @Test
+    @org.junit.jupiter.api.Tag("Негативный")
+    @DisplayName("После сброса кэша пароль проверяется заново")
+    void givenInvalidatedCache_whenAuthenticate_thenCheckPasswordAgain() {
+        provider.authenticate(UsernamePasswordAuthenticationToken.unauthenticated("admin", "admin"));
+        provider.invalidateAll();
+        provider.authenticate(UsernamePasswordAuthenticationToken.unauthenticated("admin", "admin"));
+
+        verify(passwordEncoder, times(2)).matches(any(), any());
+    }
+
+    @Test
+    @org.junit.jupiter.api.Tag("Негативный")
+    @DisplayName("Заблокированный после входа пользователь отклоняется, несмотря на кэш")
+    void givenCachedCredentials_whenUserLocked_thenThrowException() {
+        provider.authenticate(UsernamePasswordAuthenticationToken.unauthenticated("admin", "admin"));
+        userDetailsManager.updateUser(User.withUserDetails(userDetailsManager.loadUserByUsername("admin"))
+                .accountLocked(true)
+                .build());
+
+        assertThrows(LockedException.class,
+                () -> provider.authenticate(UsernamePasswordAuthenticationToken.unauthenticated("admin", "admin")));
+    }
+
+    @Test
+    @org.junit.jupiter.api.Tag("Негативный")
+    @DisplayName("Отключенный после входа пользователь отклоняется, несмотря на кэш")
+    void givenCachedCredentials_whenUserDisabled_thenThrowException() {
+        provider.authenticate(UsernamePasswordAuthenticationToken.unauthenticated("admin", "admin"));
+        userDetailsManager.updateUser(User.withUserDetails(userDetailsManager.loadUserByUsername("admin"))
+                .disabled(true)
+                .build());
+
+        assertThrows(DisabledException.class,
+                () -> provider.authenticate(UsernamePasswordAuthenticationToken.unauthenticated("admin", "admin")));
+    }
+
+    @Test
+    @org.junit.jupiter.api.Tag("Негативный")
+    @DisplayName("После смены пароля старый пароль не принимается из кэша")
+    void givenCachedCredentials_whenPasswordChanged_thenRejectOldPassword() {
+        provider.authenticate(UsernamePasswordAuthenticationToken.unauthenticated("admin", "admin"));
+        userDetailsManager.updateUser(User.withUserDetails(userDetailsManager.loadUserByUsername("admin"))
+                .password(passwordEncoder.encode("changed"))
+                .build());
+
+        assertThrows(BadCredentialsException.class,
+                () -> provider.authenticate(UsernamePasswordAuthenticationToken.unauthenticated("admin", "admin")));
+        assertTrue(provider.authenticate(UsernamePasswordAuthenticationToken.unauthenticated("admin", "changed"))
+                .isAuthenticated());
+    }
+}
@@ -0,0 +1,130 @@
+package ru.management.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.http.HttpHeaders;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.bean.override.mockito.MockitoSpyBean;
+import ru.management.dto.task.TaskCreateOrUpdateRequest;
+import ru.management.enums.TaskPriority;
+import ru.management.repository.TagRepository;
+import ru.management.repository.TaskRepository;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Base64;
+import java.util.List;
+import java.util.stream.IntStream;
+import java.util.zip.GZIPInputStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.clearInvocations;
+import static org.mockito.Mockito.verifyNoInteractions;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+        "SSL_ENABLED=false",
+        "KEY_STORE=",
+        "SSL_KEYSTORE_PASSWORD=",
+        "KEY_STORE_TYPE=PKCS12",
+        "SSL_KEY_ALIAS=",
+        "UPLOAD_DIR=${java.io.tmpdir}/management-test-uploads",
+        "server.forward-headers-strategy=native"
+})
+@ActiveProfiles("test")
+@DisplayName("Тестирование условных GET запросов списков и сжатия ответа")
+class DataVersionInterceptorTest {
+
+    private static final String AUTHORIZATION = "Basic "
+            + Base64.getEncoder().encodeToString("admin:admin".getBytes(StandardCharsets.UTF_8));
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @MockitoSpyBean
+    private TaskRepository taskRepository;
+
+    @MockitoSpyBean
+    private TagRepository tagRepository;
+
+    private final HttpClient client = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+
+    @BeforeEach
+    void setUp() throws Exception {
+        LocalDateTime scheduledDate = LocalDateTime.now().plusDays(1).withNano(0);
+        List<TaskCreateOrUpdateRequest> tasks = IntStream.range(0, 40)
+                .mapToObj(i -> new TaskCreateOrUpdateRequest("Задача " + i, "Описание задачи " + i,
+                        scheduledDate.plusMinutes(i), TaskPriority.USUAL))
+                .toList();
+        HttpResponse<String> response = client.send(request("/api/task/batch")
+                .header(HttpHeaders.AUTHORIZATION, AUTHORIZATION)
+                .header(HttpHeaders.CONTENT_TYPE, "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(objectMapper.writeValueAsString(tasks)))
+                .build(), HttpResponse.BodyHandlers.ofString());
+        assertTrue(response.statusCode() < 400, response.body());
+    }
+
+    @Test
+    @org.junit.jupiter.api.Tag("Позитивный")
+    @DisplayName("Список больше 2 КБ сжимается gzip и отдается со слабым ETag")
+    void givenLargeList_whenAcceptGzip_thenCompressWithWeakETag() throws Exception {
+        HttpResponse<byte[]> response = client.send(request("/api/task?size=40")
+                .header(HttpHeaders.ACCEPT_ENCODING, "gzip")
+                .build(), HttpResponse.BodyHandlers.ofByteArray());
+
+        assertEquals(200, response.statusCode());
+        assertEquals("gzip", response.headers().firstValue(HttpHeaders.CONTENT_ENCODING).orElse(null));
+        assertTrue(response.headers().firstValue(HttpHeaders.ETAG).orElse("").startsWith("W/\""));
+        assertTrue(gunzip(response.body()).length > 2048);
+    }
+
+    @Test
+    @org.junit.jupiter.api.Tag("Позитивный")
+    @DisplayName("Совпадающий If-None-Match на списках возвращает 304 без обращения к репозиториям")
+    void givenCurrentETag_whenGetLists_thenNotModifiedWithoutRepository() throws Exception {
+        String eTag = client.send(request("/api/task").build(),
+                        HttpResponse.BodyHandlers.discarding())
+                .headers().firstValue(HttpHeaders.ETAG).orElseThrow();
+        clearInvocations(taskRepository, tagRepository);
+
+        for (String path : List.of("/api/task", "/api/task/get-period?start=2025-01-01&end=2025-01-02",
+                "/api/task/search?query=report", "/api/task/stats?start=2025-01-01&end=2025-01-02",
+                "/api/task/tag/1", "/api/tag/tag-for-tasks")) {
+            HttpResponse<String> response = client.send(request(path)
+                    .header(HttpHeaders.IF_NONE_MATCH, eTag)
+                    .build(), HttpResponse.BodyHandlers.ofString());
+
+            assertEquals(304, response.statusCode(), path);
+            assertEquals(eTag, response.headers().firstValue(HttpHeaders.ETAG).orElse(null), path);
+        }
+        verifyNoInteractions(taskRepository, tagRepository);
+    }
+
+    /**
+     * Все запросы требуют HTTPS, поэтому тест без сертификата обращается как локальный прокси после терминации TLS
+     */
+    private HttpRequest.Builder request(String path) {
+        return HttpRequest.newBuilder(URI.create("http://localhost:" + port + path))
+                .header("X-Forwarded-Proto", "https");
+    }
+
+    private static byte[] gunzip(byte[] body) throws IOException {
+        try (GZIPInputStream inputStream = new GZIPInputStream(new ByteArrayInputStream(body))) {
+            return inputStream.readAllBytes();
+        }
+    }
+}
@@ -0,0 +1,152 @@
+package ru.management.datasource;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.autoconfigure.cache.CacheProperties;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.EnableAspectJAutoProxy;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.EnableTransactionManagement;
+import org.springframework.transaction.annotation.Transactional;
+import ru.management.config.CacheConfig;
+import ru.management.config.CacheNames;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+@DisplayName("Тестирование чтения из основной базы для кэшируемых запросов")
+class ReadFromPrimaryAspectTest {
+
+    private AnnotationConfigApplicationContext context;
+    private JdbcTemplate primary;
+    private TitleService titleService;
+
+    @BeforeEach
+    void setUp() {
+        context = new AnnotationConfigApplicationContext(RoutingConfig.class);
+        primary = context.getBean("primary", JdbcTemplate.class);
+        titleService = context.getBean(TitleService.class);
+        // Реплика еще не получила последнее изменение
+        primary.update("UPDATE task SET title = 'новое'");
+    }
+
+    @AfterEach
+    void tearDown() {
+        context.close();
+    }
+
+    @Test
+    @org.junit.jupiter.api.Tag("Позитивный")
+    @DisplayName("Кэшируемое чтение идет в основную базу, остальное чтение в реплику")
+    void givenLaggingReplica_whenCachedRead_thenCachePrimaryState() {
+        assertEquals("новое", titleService.cachedTitle(1L));
+        assertEquals("старое", titleService.title());
+
+        primary.update("UPDATE task SET title = 'следующее'");
+        assertEquals("новое", titleService.cachedTitle(1L));
+    }
+
+    @Test
+    @org.junit.jupiter.api.Tag("Позитивный")
+    @DisplayName("Признак основной базы снимается после выхода из метода")
+    void givenCachedRead_whenNextRead_thenUseReplica() {
+        titleService.cachedTitle(1L);
+
+        assertEquals("старое", titleService.title());
+        assertEquals("новое", titleService.cachedTitle(2L));
+    }
+
+    @Configuration
+    @EnableCaching
+    @EnableTransactionManagement
+    @EnableAspectJAutoProxy
+    static class RoutingConfig {
+
+        @Bean
+        JdbcTemplate primary() {
+            return database();
+        }
+
+        @Bean
+        JdbcTemplate replica() {
+            return database();
+        }
+
+        @Bean
+        DataSource dataSource() {
+            DataSource replica = replica().getDataSource();
+            ReplicaLagMonitor replicaLagMonitor = new ReplicaLagMonitor(replica, "SELECT 0",
+                    Duration.ofSeconds(5), new SimpleMeterRegistry());
+            replicaLagMonitor.check();
+            return new LazyConnectionDataSourceProxy(new ReplicaRoutingDataSource(primary().getDataSource(), replica,
+                    replicaLagMonitor, new ReadYourWritesTracker(Duration.ofMinutes(1), 100)));
+        }
+
+        @Bean
+        PlatformTransactionManager transactionManager() {
+            return new DataSourceTransactionManager(dataSource());
+        }
+
+        @Bean
+        CacheManager cacheManager() {
+            CacheProperties cacheProperties = new CacheProperties();
+            cacheProperties.setCacheNames(List.of(CacheNames.TASK));
+            return new CacheConfig().cacheManager(cacheProperties);
+        }
+
+        @Bean
+        ReadFromPrimaryAspect readFromPrimaryAspect() {
+            return new ReadFromPrimaryAspect();
+        }
+
+        @Bean
+        TitleService titleService() {
+            return new TitleService(new JdbcTemplate(dataSource()));
+        }
+
+        private static JdbcTemplate database() {
+            JdbcTemplate database = new JdbcTemplate(new DriverManagerDataSource(
+                    "jdbc:h2:mem:routing-" + UUID.randomUUID() + ";DB_CLOSE_DELAY=-1", "sa", ""));
+            database.execute("CREATE TABLE task (title VARCHAR(20))");
+            database.update("INSERT INTO task VALUES ('старое')");
+            return database;
+        }
+    }
+
+    static class TitleService {
+
+        private final JdbcTemplate jdbcTemplate;
+
+        TitleService(JdbcTemplate jdbcTemplate) {
+            this.jdbcTemplate = jdbcTemplate;
+        }
+
+        @Transactional(readOnly = true)
+        @ReadFromPrimary
+        @Cacheable(cacheNames = CacheNames.TASK, key = "#id")
+        public String cachedTitle(Long id) {
+            return title();
+        }
+
+        @Transactional(readOnly = true)
+        public String title() {
+            return jdbcTemplate.queryForObject("SELECT title FROM task", String.class);
+        }
+    }
+}
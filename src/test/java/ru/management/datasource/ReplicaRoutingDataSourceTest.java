@@ -0,0 +1,117 @@
+package ru.management.datasource;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.security.authentication.TestingAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.management.dto.change.ChangeEvent;
+import ru.management.enums.ChangeType;
+
+import java.time.Duration;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+@DisplayName("Тестирование маршрутизации чтения в реплику")
+class ReplicaRoutingDataSourceTest {
+
+    private final JdbcTemplate primary = database("primary");
+    private final JdbcTemplate replica = database("replica");
+
+    private ReplicaLagMonitor replicaLagMonitor;
+    private ReadYourWritesTracker readYourWritesTracker;
+    private JdbcTemplate jdbcTemplate;
+    private TransactionTemplate readOnlyTransaction;
+    private TransactionTemplate writeTransaction;
+
+    @BeforeEach
+    void setUp() {
+        replica.execute("CREATE TABLE replica_lag (seconds DOUBLE PRECISION)");
+        replica.update("INSERT INTO replica_lag VALUES (0)");
+        replicaLagMonitor = new ReplicaLagMonitor(replica.getDataSource(), "SELECT seconds FROM replica_lag",
+                Duration.ofSeconds(5), new SimpleMeterRegistry());
+        readYourWritesTracker = new ReadYourWritesTracker(Duration.ofMinutes(1), 100);
+
+        LazyConnectionDataSourceProxy dataSource = new LazyConnectionDataSourceProxy(new ReplicaRoutingDataSource(
+                primary.getDataSource(), replica.getDataSource(), replicaLagMonitor, readYourWritesTracker));
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        DataSourceTransactionManager transactionManager = new DataSourceTransactionManager(dataSource);
+        readOnlyTransaction = new TransactionTemplate(transactionManager);
+        readOnlyTransaction.setReadOnly(true);
+        writeTransaction = new TransactionTemplate(transactionManager);
+        replicaLagMonitor.check();
+    }
+
+    @AfterEach
+    void tearDown() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    @org.junit.jupiter.api.Tag("Позитивный")
+    @DisplayName("Транзакция только на чтение идет в реплику, остальные запросы в основную базу")
+    void givenReadOnlyTransaction_whenQuery_thenUseReplica() {
+        assertEquals("replica", readOnlyTransaction.execute(status -> role()));
+        assertEquals("primary", writeTransaction.execute(status -> role()));
+        assertEquals("primary", role());
+    }
+
+    @Test
+    @org.junit.jupiter.api.Tag("Негативный")
+    @DisplayName("Отставание реплики выше порога переключает чтение на основную базу")
+    void givenLaggingReplica_whenReadOnlyTransaction_thenUsePrimary() {
+        replica.update("UPDATE replica_lag SET seconds = 30");
+        replicaLagMonitor.check();
+        assertEquals("primary", readOnlyTransaction.execute(status -> role()));
+
+        replica.update("UPDATE replica_lag SET seconds = 1");
+        replicaLagMonitor.check();
+        assertEquals("replica", readOnlyTransaction.execute(status -> role()));
+    }
+
+    @Test
+    @org.junit.jupiter.api.Tag("Негативный")
+    @DisplayName("Ошибка проверки отставания переключает чтение на основную базу")
+    void givenFailedLagCheck_whenReadOnlyTransaction_thenUsePrimary() {
+        replica.execute("DROP TABLE replica_lag");
+        replicaLagMonitor.check();
+
+        assertEquals("primary", readOnlyTransaction.execute(status -> role()));
+    }
+
+    @Test
+    @org.junit.jupiter.api.Tag("Позитивный")
+    @DisplayName("После изменения пользователь читает из основной базы, другие пользователи из реплики")
+    void givenRecentWrite_whenReadOnlyTransaction_thenStickToPrimaryForWriter() {
+        authenticate("writer");
+        readYourWritesTracker.onChange(ChangeEvent.task(ChangeType.TASK_UPDATED, 1L));
+        assertEquals("primary", readOnlyTransaction.execute(status -> role()));
+
+        authenticate("reader");
+        assertEquals("replica", readOnlyTransaction.execute(status -> role()));
+    }
+
+    private String role() {
+        return jdbcTemplate.queryForObject("SELECT name FROM db_role", String.class);
+    }
+
+    private void authenticate(String username) {
+        SecurityContextHolder.getContext().setAuthentication(new TestingAuthenticationToken(username, null, "ROLE_USER"));
+    }
+
+    private static JdbcTemplate database(String role) {
+        JdbcTemplate database = new JdbcTemplate(new DriverManagerDataSource(
+                "jdbc:h2:mem:" + role + "-" + UUID.randomUUID() + ";DB_CLOSE_DELAY=-1", "sa", ""));
+        database.execute("CREATE TABLE db_role (name VARCHAR(20))");
+        database.update("INSERT INTO db_role VALUES (?)", role);
+        return database;
+    }
+}
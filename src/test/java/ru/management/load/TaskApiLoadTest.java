@@ -0,0 +1,376 @@
+package ru.management.load;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import ru.management.dto.task.TaskBatchItemResponse;
+import ru.management.dto.task.TaskCreateOrUpdateRequest;
+import ru.management.enums.TaskPriority;
+
+import javax.net.ssl.SSLContext;
+import javax.net.ssl.TrustManagerFactory;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.security.KeyStore;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Нагрузочный тест REST API на встроенной H2 в режиме PostgreSQL со схемой из Liquibase.
+ * Параметры передаются системными свойствами load.*, отчет пишется в JSON
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@ActiveProfiles("load")
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+@org.junit.jupiter.api.Tag("load")
+@DisplayName("Нагрузочный тест API задач и тегов")
+class TaskApiLoadTest {
+
+    private static final int THREADS = Integer.getInteger("load.threads", 16);
+    private static final int WARMUP_SECONDS = Integer.getInteger("load.warmup-seconds", 10);
+    private static final int DURATION_SECONDS = Integer.getInteger("load.duration-seconds", 30);
+    private static final int SEED_TASKS = Integer.getInteger("load.seed-tasks", 5_000);
+    private static final int SEED_TAGGED_TASKS = Integer.getInteger("load.seed-tagged-tasks", 1_000);
+    private static final double MAX_ERROR_RATE = Double.parseDouble(System.getProperty("load.max-error-rate", "0.01"));
+    private static final String REPORT = System.getProperty("load.report", "build/reports/load/load-test.json");
+
+    private static final String KEYSTORE_PASSWORD = "changeit";
+    private static final String KEY_ALIAS = "load";
+    private static final String AUTHORIZATION = "Basic "
+            + Base64.getEncoder().encodeToString("admin:admin".getBytes(StandardCharsets.UTF_8));
+    private static final LocalDateTime START = LocalDateTime.now().plusDays(1).withNano(0);
+    private static final int SEED_DAYS = 30;
+    private static final int SEED_TAGS = 4;
+
+    /**
+     * Смесь запросов и их доли в процентах
+     */
+    private static final Map<String, Integer> MIX = mix(System.getProperty(
+            "load.mix", "page=30,period=25,tag=25,create=10,add-tag=10"));
+
+    private static Path keyStore;
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    private HttpClient client;
+    private List<Long> taskIds;
+
+    @DynamicPropertySource
+    static void sslProperties(DynamicPropertyRegistry registry) throws IOException, InterruptedException {
+        keyStore = generateKeyStore();
+        registry.add("server.ssl.key-store", () -> keyStore.toUri().toString());
+        registry.add("server.ssl.key-store-password", () -> KEYSTORE_PASSWORD);
+        registry.add("server.ssl.key-alias", () -> KEY_ALIAS);
+    }
+
+    @BeforeAll
+    void setUp() throws Exception {
+        KeyStore trustStore = KeyStore.getInstance("PKCS12");
+        try (InputStream inputStream = Files.newInputStream(keyStore)) {
+            trustStore.load(inputStream, KEYSTORE_PASSWORD.toCharArray());
+        }
+        TrustManagerFactory trustManagerFactory = TrustManagerFactory.getInstance(TrustManagerFactory.getDefaultAlgorithm());
+        trustManagerFactory.init(trustStore);
+        SSLContext sslContext = SSLContext.getInstance("TLS");
+        sslContext.init(null, trustManagerFactory.getTrustManagers(), null);
+
+        client = HttpClient.newBuilder()
+                .sslContext(sslContext)
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofSeconds(10))
+                .executor(Executors.newFixedThreadPool(THREADS))
+                .build();
+        taskIds = seedTasks();
+    }
+
+    @Test
+    @DisplayName("Смешанная нагрузка чтения и записи")
+    void mixedWorkload() throws Exception {
+        long warmupEnd = System.nanoTime() + TimeUnit.SECONDS.toNanos(WARMUP_SECONDS);
+        long end = warmupEnd + TimeUnit.SECONDS.toNanos(DURATION_SECONDS);
+
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        List<Future<Map<String, Recorder>>> futures = new ArrayList<>(THREADS);
+        for (int i = 0; i < THREADS; i++) {
+            futures.add(executor.submit(() -> runWorker(warmupEnd, end)));
+        }
+        Map<String, Recorder> total = new LinkedHashMap<>();
+        for (Future<Map<String, Recorder>> future : futures) {
+            future.get().forEach((operation, recorder) ->
+                    total.computeIfAbsent(operation, key -> new Recorder()).merge(recorder));
+        }
+        executor.shutdown();
+
+        Map<String, Object> report = report(total);
+        Path reportPath = Paths.get(REPORT);
+        Files.createDirectories(reportPath.toAbsolutePath().getParent());
+        objectMapper.copy()
+                .enable(SerializationFeature.INDENT_OUTPUT)
+                .writeValue(reportPath.toFile(), report);
+        System.out.println(objectMapper.writerWithDefaultPrettyPrinter().writeValueAsString(report));
+
+        Recorder all = new Recorder();
+        total.values().forEach(all::merge);
+        assertTrue(all.count() > 0, "Не выполнено ни одного запроса");
+        assertTrue(all.errorRate() <= MAX_ERROR_RATE, "Доля ошибок " + all.errorRate() + " выше " + MAX_ERROR_RATE);
+    }
+
+    private Map<String, Recorder> runWorker(long warmupEnd, long end) {
+        Map<String, Recorder> recorders = new LinkedHashMap<>();
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        int weightSum = MIX.values().stream().mapToInt(Integer::intValue).sum();
+        long now;
+        while ((now = System.nanoTime()) < end) {
+            String operation = pick(random.nextInt(weightSum));
+            HttpRequest request = request(operation, random);
+            boolean success;
+            try {
+                HttpResponse<Void> response = client.send(request, HttpResponse.BodyHandlers.discarding());
+                success = response.statusCode() < 400;
+            } catch (IOException e) {
+                success = false;
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            }
+            long finished = System.nanoTime();
+            if (now >= warmupEnd) {
+                recorders.computeIfAbsent(operation, key -> new Recorder()).record(finished - now, success);
+            }
+        }
+        return recorders;
+    }
+
+    private HttpRequest request(String operation, ThreadLocalRandom random) {
+        long tagId = random.nextLong(1, SEED_TAGS + 1);
+        long taskId = taskIds.get(random.nextInt(taskIds.size()));
+        return switch (operation) {
+            case "page" -> get("/api/task?page=" + random.nextInt(SEED_TASKS / 20) + "&size=20");
+            case "period" -> {
+                LocalDate day = START.toLocalDate().plusDays(random.nextInt(SEED_DAYS));
+                yield get("/api/task/get-period?start=" + day + "&end=" + day.plusDays(1));
+            }
+            case "tag" -> get("/api/task/tag/" + tagId);
+            case "create" -> post("/api/task/save", json(newTask(random.nextInt(SEED_TASKS))));
+            case "add-tag" -> post("/api/task/" + taskId + "/" + tagId, HttpRequest.BodyPublishers.noBody());
+            default -> throw new IllegalArgumentException("Неизвестная операция: " + operation);
+        };
+    }
+
+    /**
+     * Наполнение базы задачами с тегами через API перед замером
+     */
+    private List<Long> seedTasks() throws IOException, InterruptedException {
+        List<TaskCreateOrUpdateRequest> requests = new ArrayList<>(SEED_TASKS);
+        for (int i = 0; i < SEED_TASKS; i++) {
+            requests.add(newTask(i));
+        }
+        HttpResponse<String> response = client.send(post("/api/task/batch", json(requests)),
+                HttpResponse.BodyHandlers.ofString());
+        assertTrue(response.statusCode() < 400, "Не удалось создать задачи: " + response.body());
+
+        List<Long> ids = objectMapper.readValue(response.body(), new TypeReference<List<TaskBatchItemResponse>>() { })
+                .stream()
+                .filter(TaskBatchItemResponse::created)
+                .map(item -> item.task().id())
+                .toList();
+        // Каждое добавление тега проходит проверку пароля, поэтому теги получает только часть задач, порциями параллельно
+        int tagged = Math.min(ids.size(), SEED_TAGGED_TASKS);
+        for (int start = 0; start < tagged; start += THREADS) {
+            CompletableFuture.allOf(IntStream.range(start, Math.min(tagged, start + THREADS))
+                            .mapToObj(i -> client.sendAsync(
+                                    post("/api/task/" + ids.get(i) + "/" + (i % SEED_TAGS + 1),
+                                            HttpRequest.BodyPublishers.noBody()),
+                                    HttpResponse.BodyHandlers.discarding()))
+                            .toArray(CompletableFuture[]::new))
+                    .join();
+        }
+        return ids;
+    }
+
+    private TaskCreateOrUpdateRequest newTask(int index) {
+        return new TaskCreateOrUpdateRequest(
+                "Задача " + index,
+                "Описание нагрузочной задачи " + index,
+                START.plusDays(index % SEED_DAYS).plusMinutes(index % 600),
+                TaskPriority.values()[index % TaskPriority.values().length]);
+    }
+
+    private HttpRequest get(String path) {
+        return HttpRequest.newBuilder(uri(path)).GET().build();
+    }
+
+    private HttpRequest post(String path, HttpRequest.BodyPublisher body) {
+        return HttpRequest.newBuilder(uri(path))
+                .header("Authorization", AUTHORIZATION)
+                .header("Content-Type", "application/json")
+                .POST(body)
+                .build();
+    }
+
+    private HttpRequest.BodyPublisher json(Object body) {
+        try {
+            return HttpRequest.BodyPublishers.ofByteArray(objectMapper.writeValueAsBytes(body));
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private URI uri(String path) {
+        return URI.create("https://localhost:" + port + path);
+    }
+
+    private String pick(int value) {
+        int threshold = 0;
+        for (Map.Entry<String, Integer> entry : MIX.entrySet()) {
+            threshold += entry.getValue();
+            if (value < threshold) {
+                return entry.getKey();
+            }
+        }
+        throw new IllegalStateException("Пустая смесь запросов");
+    }
+
+    private Map<String, Object> report(Map<String, Recorder> recorders) {
+        Map<String, Object> operations = new LinkedHashMap<>();
+        Recorder all = new Recorder();
+        recorders.forEach((operation, recorder) -> {
+            operations.put(operation, recorder.summary(DURATION_SECONDS));
+            all.merge(recorder);
+        });
+
+        Map<String, Object> config = new LinkedHashMap<>();
+        config.put("threads", THREADS);
+        config.put("warmupSeconds", WARMUP_SECONDS);
+        config.put("durationSeconds", DURATION_SECONDS);
+        config.put("seedTasks", SEED_TASKS);
+        config.put("seedTaggedTasks", SEED_TAGGED_TASKS);
+        config.put("mix", MIX);
+
+        Map<String, Object> report = new LinkedHashMap<>();
+        report.put("config", config);
+        report.put("total", all.summary(DURATION_SECONDS));
+        report.put("operations", operations);
+        return report;
+    }
+
+    private static Map<String, Integer> mix(String value) {
+        Map<String, Integer> mix = new LinkedHashMap<>();
+        Arrays.stream(value.split(","))
+                .map(String::trim)
+                .map(entry -> entry.split("="))
+                .forEach(entry -> mix.put(entry[0].trim(), Integer.parseInt(entry[1].trim())));
+        return mix;
+    }
+
+    /**
+     * Самоподписанный сертификат для localhost, чтобы нагрузка шла через TLS, как в работе
+     */
+    private static Path generateKeyStore() throws IOException, InterruptedException {
+        Path path = Files.createTempDirectory("load-tls").resolve("keystore.p12");
+        Path keytool = Paths.get(System.getProperty("java.home"), "bin", "keytool");
+        Process process = new ProcessBuilder(keytool.toString(),
+                "-genkeypair", "-alias", KEY_ALIAS, "-keyalg", "RSA", "-keysize", "2048", "-validity", "1",
+                "-dname", "CN=localhost", "-ext", "SAN=dns:localhost,ip:127.0.0.1",
+                "-storetype", "PKCS12", "-keystore", path.toString(),
+                "-storepass", KEYSTORE_PASSWORD, "-keypass", KEYSTORE_PASSWORD)
+                .redirectErrorStream(true)
+                .start();
+        String output = new String(process.getInputStream().readAllBytes(), StandardCharsets.UTF_8);
+        if (process.waitFor() != 0) {
+            throw new IllegalStateException("Не удалось создать хранилище ключей: " + output);
+        }
+        return path;
+    }
+
+    /**
+     * Накопитель задержек одной операции
+     */
+    private static final class Recorder {
+        private long[] latencies = new long[1024];
+        private int count;
+        private long errors;
+
+        void record(long nanos, boolean success) {
+            if (count == latencies.length) {
+                latencies = Arrays.copyOf(latencies, count * 2);
+            }
+            latencies[count++] = nanos;
+            if (!success) {
+                errors++;
+            }
+        }
+
+        void merge(Recorder other) {
+            for (int i = 0; i < other.count; i++) {
+                record(other.latencies[i], true);
+            }
+            errors += other.errors;
+        }
+
+        long count() {
+            return count;
+        }
+
+        double errorRate() {
+            return count == 0 ? 0 : (double) errors / count;
+        }
+
+        Map<String, Object> summary(int durationSeconds) {
+            long[] sorted = Arrays.copyOf(latencies, count);
+            Arrays.sort(sorted);
+            Function<Double, Double> percentile = p -> sorted.length == 0
+                    ? 0.0
+                    : sorted[(int) Math.min(sorted.length - 1, Math.ceil(p * sorted.length) - 1)] / 1_000_000.0;
+
+            Map<String, Object> summary = new LinkedHashMap<>();
+            summary.put("requests", count);
+            summary.put("errors", errors);
+            summary.put("rps", (double) count / durationSeconds);
+            summary.put("p50Ms", percentile.apply(0.50));
+            summary.put("p95Ms", percentile.apply(0.95));
+            summary.put("p99Ms", percentile.apply(0.99));
+            summary.put("maxMs", sorted.length == 0 ? 0.0 : sorted[sorted.length - 1] / 1_000_000.0);
+            return summary;
+        }
+    }
+}
@@ -0,0 +1,80 @@
+package ru.management.metrics;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.io.ByteArrayResource;
+import org.springframework.core.io.Resource;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.ResponseEntity;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@DisplayName("Тестирование подсчета отданных байтов файла")
+class DownloadBytesMetricsFilterTest {
+
+    private MeterRegistry meterRegistry;
+    private MockMvc mockMvc;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        mockMvc = MockMvcBuilders.standaloneSetup(new FileController())
+                .addFilters(new DownloadBytesMetricsFilter(meterRegistry))
+                .build();
+    }
+
+    @Test
+    @org.junit.jupiter.api.Tag("Позитивный")
+    @DisplayName("Полная отдача файла учитывает весь файл")
+    void givenPlainRequest_whenDownload_thenCountWholeFile() throws Exception {
+        mockMvc.perform(get("/file")).andExpect(status().isOk());
+
+        assertEquals(10, downloadBytes());
+    }
+
+    @Test
+    @org.junit.jupiter.api.Tag("Позитивный")
+    @DisplayName("Запрос диапазона учитывает только отданную часть")
+    void givenRangeRequest_whenDownload_thenCountRangeOnly() throws Exception {
+        mockMvc.perform(get("/file").header(HttpHeaders.RANGE, "bytes=2-5"))
+                .andExpect(status().isPartialContent());
+
+        assertEquals(4, downloadBytes());
+    }
+
+    @Test
+    @org.junit.jupiter.api.Tag("Негативный")
+    @DisplayName("Ответ 304 не учитывает байты файла")
+    void givenMatchingETag_whenDownload_thenCountNothing() throws Exception {
+        mockMvc.perform(get("/file").header(HttpHeaders.IF_NONE_MATCH, "\"1\""))
+                .andExpect(status().isNotModified());
+
+        assertEquals(0, downloadBytes());
+    }
+
+    private double downloadBytes() {
+        return meterRegistry.counter("attachment.download.bytes").count();
+    }
+
+    @RestController
+    static class FileController {
+
+        @GetMapping("/file")
+        ResponseEntity<Resource> file() {
+            return ResponseEntity.ok()
+                    .eTag("\"1\"")
+                    .body(new ByteArrayResource("0123456789".getBytes(StandardCharsets.UTF_8)));
+        }
+    }
+}
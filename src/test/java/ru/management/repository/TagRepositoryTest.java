@@ -0,0 +1,94 @@
+package ru.management.repository;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.transaction.TestTransaction;
+import ru.management.entity.Tag;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+@DataJpaTest
+@ActiveProfiles("test")
+@DisplayName("Тестирование кэша второго уровня тегов")
+class TagRepositoryTest {
+
+    @Autowired
+    private TagRepository tagRepository;
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    private Statistics statistics;
+    private Tag backendTag;
+    private Tag frontendTag;
+
+    /**
+     * Кэш READ_WRITE отдает запись только транзакциям, начатым после её записи,
+     * поэтому теги фиксируются, а каждый шаг теста идет в отдельной транзакции
+     */
+    @BeforeEach
+    void setUp() {
+        statistics = entityManager.getEntityManager().getEntityManagerFactory()
+                .unwrap(SessionFactory.class)
+                .getStatistics();
+        backendTag = entityManager.persist(Tag.builder().name("#backend").build());
+        frontendTag = entityManager.persist(Tag.builder().name("#frontend").build());
+        commit();
+
+        inTransaction(() -> {
+            tagRepository.findById(backendTag.getId()).orElseThrow();
+            tagRepository.findById(frontendTag.getId()).orElseThrow();
+        });
+
+        statistics.clear();
+    }
+
+    @AfterEach
+    void tearDown() {
+        inTransaction(() -> tagRepository.deleteAllById(List.of(backendTag.getId(), frontendTag.getId())));
+    }
+
+    @Test
+    @org.junit.jupiter.api.Tag("Позитивный")
+    @DisplayName("Повторное чтение тега по id не обращается к базе")
+    void givenLoadedTag_whenFindById_thenHitSecondLevelCache() {
+        inTransaction(() -> assertEquals("#backend", tagRepository.findById(backendTag.getId()).orElseThrow().getName()));
+
+        assertEquals(0, statistics.getPrepareStatementCount());
+        assertEquals(1, statistics.getSecondLevelCacheHitCount());
+    }
+
+    @Test
+    @org.junit.jupiter.api.Tag("Позитивный")
+    @DisplayName("Изменение счетчика тега не очищает остальные теги в кэше второго уровня")
+    void givenCachedTags_whenChangeTaskCount_thenOtherTagsStayCached() {
+        inTransaction(() -> tagRepository.changeTaskCount(backendTag.getId(), 1));
+        statistics.clear();
+
+        inTransaction(() -> tagRepository.findById(frontendTag.getId()).orElseThrow());
+
+        assertEquals(0, statistics.getPrepareStatementCount());
+        assertEquals(1, statistics.getSecondLevelCacheHitCount());
+    }
+
+    private void inTransaction(Runnable action) {
+        TestTransaction.start();
+        action.run();
+        commit();
+    }
+
+    private static void commit() {
+        TestTransaction.flagForCommit();
+        TestTransaction.end();
+    }
+}
@@ -0,0 +1,91 @@
+package ru.management.repository;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.test.context.ActiveProfiles;
+import ru.management.entity.Task;
+import ru.management.enums.TaskPriority;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@DataJpaTest
+@ActiveProfiles("test")
+@org.junit.jupiter.api.Tag("benchmark")
+@DisplayName("Бенчмарк пакетного сохранения задач")
+class TaskBatchInsertBenchmarkTest {
+
+    private static final int TASK_COUNT = Integer.getInteger("benchmark.tasks", 5_000);
+    private static final int CHUNK_SIZE = 1000;
+
+    @Autowired
+    private TaskRepository taskRepository;
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    private Statistics statistics;
+
+    @BeforeEach
+    void setUp() {
+        statistics = entityManager.getEntityManager().getEntityManagerFactory()
+                .unwrap(SessionFactory.class)
+                .getStatistics();
+    }
+
+    @Test
+    @DisplayName("Пакетная вставка против одиночных вставок")
+    void compareBatchInsertWithSingleInserts() {
+        statistics.clear();
+        long singleStart = System.nanoTime();
+        for (int i = 0; i < TASK_COUNT; i++) {
+            taskRepository.saveAndFlush(newTask(i));
+            entityManager.clear();
+        }
+        long singleNanos = System.nanoTime() - singleStart;
+        long singleStatements = statistics.getPrepareStatementCount();
+
+        statistics.clear();
+        long batchStart = System.nanoTime();
+        List<Task> chunk = new ArrayList<>(CHUNK_SIZE);
+        for (int i = 0; i < TASK_COUNT; i++) {
+            chunk.add(newTask(i));
+            if (chunk.size() == CHUNK_SIZE || i == TASK_COUNT - 1) {
+                taskRepository.saveAll(chunk);
+                entityManager.flush();
+                entityManager.clear();
+                chunk.clear();
+            }
+        }
+        long batchNanos = System.nanoTime() - batchStart;
+        long batchStatements = statistics.getPrepareStatementCount();
+
+        System.out.printf("single: %d tasks, %.0f tasks/s, %d statements%n",
+                TASK_COUNT, throughput(singleNanos), singleStatements);
+        System.out.printf("batch:  %d tasks, %.0f tasks/s, %d statements%n",
+                TASK_COUNT, throughput(batchNanos), batchStatements);
+        assertTrue(batchStatements < singleStatements);
+    }
+
+    private static double throughput(long nanos) {
+        return TASK_COUNT / (nanos / 1_000_000_000.0);
+    }
+
+    private static Task newTask(int i) {
+        return Task.builder()
+                .name("Задача " + i)
+                .description("Описание " + i)
+                .scheduledDate(LocalDateTime.of(2030, 1, 1, 10, 0).plusMinutes(i))
+                .priority(TaskPriority.USUAL)
+                .build();
+    }
+}
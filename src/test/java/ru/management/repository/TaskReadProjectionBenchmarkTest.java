@@ -0,0 +1,128 @@
+package ru.management.repository;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.test.context.ActiveProfiles;
+import ru.management.dto.task.TaskResponse;
+import ru.management.entity.Tag;
+import ru.management.entity.Task;
+import ru.management.enums.TaskPriority;
+import ru.management.mapper.TaskMapper;
+import ru.management.mapper.TaskMapperImpl;
+import ru.management.service.impl.TaskResponseAssembler;
+
+import java.lang.management.ManagementFactory;
+import java.time.LocalDateTime;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.function.IntFunction;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@DataJpaTest
+@ActiveProfiles("test")
+@Import({TaskMapperImpl.class, TaskResponseAssembler.class})
+@org.junit.jupiter.api.Tag("benchmark")
+@DisplayName("Бенчмарк чтения страниц задач через сущности и проекции")
+class TaskReadProjectionBenchmarkTest {
+
+    private static final int PAGE_SIZE = Integer.getInteger("benchmark.page-size", 1_000);
+    private static final int PAGES = Integer.getInteger("benchmark.pages", 5);
+    private static final int ITERATIONS = Integer.getInteger("benchmark.iterations", 5);
+
+    private static final com.sun.management.ThreadMXBean THREAD_MX_BEAN =
+            (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+
+    @Autowired
+    private TaskRepository taskRepository;
+
+    @Autowired
+    private TaskMapper taskMapper;
+
+    @Autowired
+    private TaskResponseAssembler taskResponseAssembler;
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @BeforeEach
+    void setUp() {
+        Long backendTagId = entityManager.persistAndGetId(Tag.builder().name("#backend").build(), Long.class);
+        Long officeTagId = entityManager.persistAndGetId(Tag.builder().name("#office").build(), Long.class);
+        Tag backendTag = entityManager.find(Tag.class, backendTagId);
+        Tag officeTag = entityManager.find(Tag.class, officeTagId);
+        for (int i = 0; i < PAGE_SIZE * PAGES; i++) {
+            entityManager.persist(Task.builder()
+                    .name("Задача " + i)
+                    .description("Описание задачи " + i)
+                    .scheduledDate(LocalDateTime.of(2030, 1, 1, 10, 0).plusMinutes(i))
+                    .priority(TaskPriority.values()[i % TaskPriority.values().length])
+                    .tags(new HashSet<>(i % 2 == 0 ? Set.of(backendTag) : Set.of(backendTag, officeTag)))
+                    .build());
+            if (i % PAGE_SIZE == PAGE_SIZE - 1) {
+                entityManager.flush();
+                entityManager.clear();
+                // После очистки контекста теги отсоединены, а связь каскадирует PERSIST
+                backendTag = entityManager.find(Tag.class, backendTagId);
+                officeTag = entityManager.find(Tag.class, officeTagId);
+            }
+        }
+        entityManager.flush();
+        entityManager.clear();
+    }
+
+    @Test
+    @DisplayName("Страница из сущностей с маппером против проекции со сборкой ответа")
+    void compareEntityPageWithProjectionPage() {
+        IntFunction<List<TaskResponse>> entities = page -> taskMapper.entityListToResponseList(
+                taskRepository.findAll(pageRequest(page)).getContent());
+        IntFunction<List<TaskResponse>> projections = page -> taskResponseAssembler.toResponses(
+                taskRepository.findAllRows(pageRequest(page)).getContent());
+
+        measure(entities);
+        measure(projections);
+        Result entity = measure(entities);
+        Result projection = measure(projections);
+
+        System.out.printf("entity:     %d rows/page, %.2f ms/page, %d KB/page%n",
+                PAGE_SIZE, entity.millisPerPage(), entity.bytesPerPage() / 1024);
+        System.out.printf("projection: %d rows/page, %.2f ms/page, %d KB/page%n",
+                PAGE_SIZE, projection.millisPerPage(), projection.bytesPerPage() / 1024);
+        assertTrue(projection.bytesPerPage() < entity.bytesPerPage());
+    }
+
+    /**
+     * Прогон всех страниц ITERATIONS раз. Контекст очищается после каждой страницы, как в отдельном запросе,
+     * а память считается по байтам, выделенным текущим потоком
+     */
+    private Result measure(IntFunction<List<TaskResponse>> readPage) {
+        long allocatedStart = THREAD_MX_BEAN.getThreadAllocatedBytes(Thread.currentThread().getId());
+        long start = System.nanoTime();
+        for (int iteration = 0; iteration < ITERATIONS; iteration++) {
+            for (int page = 0; page < PAGES; page++) {
+                assertEquals(PAGE_SIZE, readPage.apply(page).size());
+                entityManager.clear();
+            }
+        }
+        long nanos = System.nanoTime() - start;
+        long allocated = THREAD_MX_BEAN.getThreadAllocatedBytes(Thread.currentThread().getId()) - allocatedStart;
+        int pages = ITERATIONS * PAGES;
+        return new Result(nanos / 1_000_000.0 / pages, allocated / pages);
+    }
+
+    private static PageRequest pageRequest(int page) {
+        return PageRequest.of(page, PAGE_SIZE, Sort.by("scheduledDate"));
+    }
+
+    private record Result(double millisPerPage, long bytesPerPage) {
+    }
+}
@@ -0,0 +1,169 @@
+package ru.management.repository;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+import org.springframework.test.context.ActiveProfiles;
+import ru.management.dto.task.TaskDayStatsResponse;
+import ru.management.dto.task.TaskResponse;
+import ru.management.entity.Tag;
+import ru.management.entity.Task;
+import ru.management.enums.TaskPriority;
+import ru.management.service.impl.TaskResponseAssembler;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@DataJpaTest
+@ActiveProfiles("test")
+@Import(TaskResponseAssembler.class)
+@DisplayName("Тестирование количества SQL запросов при чтении задач")
+class TaskRepositoryTest {
+
+    private static final int TASK_COUNT = 30;
+    private static final LocalDateTime START = LocalDateTime.of(2030, 1, 1, 10, 0);
+
+    @Autowired
+    private TaskRepository taskRepository;
+
+    @Autowired
+    private TaskResponseAssembler taskResponseAssembler;
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    private Statistics statistics;
+    private Tag backendTag;
+
+    @BeforeEach
+    void setUp() {
+        backendTag = entityManager.persist(Tag.builder().name("#backend").build());
+        Tag frontendTag = entityManager.persist(Tag.builder().name("#frontend").build());
+        Tag officeTag = entityManager.persist(Tag.builder().name("#office").build());
+
+        for (int i = 0; i < TASK_COUNT; i++) {
+            Tag secondTag = i % 2 == 0 ? frontendTag : officeTag;
+            entityManager.persist(Task.builder()
+                    .name("Задача " + i)
+                    .description("Описание " + i)
+                    .scheduledDate(START.plusHours(i))
+                    .priority(TaskPriority.values()[i % TaskPriority.values().length])
+                    .tags(new HashSet<>(Set.of(backendTag, secondTag)))
+                    .build());
+        }
+        entityManager.flush();
+        entityManager.clear();
+
+        statistics = entityManager.getEntityManager().getEntityManagerFactory()
+                .unwrap(SessionFactory.class)
+                .getStatistics();
+        statistics.clear();
+    }
+
+    @ParameterizedTest
+    @ValueSource(ints = {5, 20})
+    @org.junit.jupiter.api.Tag("Позитивный")
+    @DisplayName("Страница задач с тегами: выборка, count и один запрос тегов")
+    void givenPage_whenFindAllWithTags_thenStatementCountIsFixed(int pageSize) {
+        Page<TaskRow> page = taskRepository.findAllRows(PageRequest.of(0, pageSize, Sort.by("scheduledDate")));
+        List<TaskResponse> tasks = taskResponseAssembler.toResponses(page.getContent());
+        tasks.forEach(task -> assertEquals(2, task.tags().size()));
+
+        assertEquals(pageSize, tasks.size());
+        assertEquals(3, statistics.getPrepareStatementCount());
+        assertEquals(0, statistics.getEntityLoadCount());
+    }
+
+    @Test
+    @org.junit.jupiter.api.Tag("Позитивный")
+    @DisplayName("Задачи по тегу: выборка и один запрос тегов")
+    void givenTag_whenFindTasksByTagWithTags_thenStatementCountIsFixed() {
+        List<TaskResponse> tasks = taskResponseAssembler.toResponses(
+                taskRepository.findRowsByTagIdOrderByPriorityDesc(backendTag.getId()));
+        tasks.forEach(task -> assertEquals(2, task.tags().size()));
+
+        assertEquals(TASK_COUNT, tasks.size());
+        assertEquals(2, statistics.getPrepareStatementCount());
+        assertEquals(0, statistics.getEntityLoadCount());
+    }
+
+    @Test
+    @org.junit.jupiter.api.Tag("Позитивный")
+    @DisplayName("Задачи за период: выборка и один запрос тегов")
+    void givenPeriod_whenFindTasksBetweenDateWithTags_thenStatementCountIsFixed() {
+        List<TaskResponse> tasks = taskResponseAssembler.toResponses(
+                taskRepository.findRowsBetweenDateByPriorityDesc(START, START.plusHours(TASK_COUNT)));
+        tasks.forEach(task -> assertEquals(2, task.tags().size()));
+
+        assertEquals(TASK_COUNT, tasks.size());
+        assertEquals(2, statistics.getPrepareStatementCount());
+        assertEquals(0, statistics.getEntityLoadCount());
+    }
+
+    @Test
+    @org.junit.jupiter.api.Tag("Позитивный")
+    @DisplayName("Задачи по тегу упорядочены по уровню приоритета, а не по имени")
+    void givenTag_whenFindTasksByTag_thenOrderByPriorityLevel() {
+        List<TaskRow> tasks = taskRepository.findRowsByTagIdOrderByPriorityDesc(backendTag.getId());
+
+        assertEquals(TaskPriority.URGENT, tasks.get(0).priority());
+        assertEquals(TaskPriority.USUAL, tasks.get(tasks.size() - 1).priority());
+        for (int i = 1; i < tasks.size(); i++) {
+            assertTrue(tasks.get(i - 1).priority().getPriority() >= tasks.get(i).priority().getPriority());
+        }
+    }
+
+    @Test
+    @org.junit.jupiter.api.Tag("Позитивный")
+    @DisplayName("Статистика группирует задачи по дню и приоритету одним запросом")
+    void givenPeriod_whenCountByDayAndPriority_thenGroupByDay() {
+        LocalDate day = START.toLocalDate();
+        List<TaskDayStatsResponse> stats = taskRepository.countByDayAndPriority(
+                day.atStartOfDay(), day.plusDays(2).atStartOfDay(), backendTag.getId());
+
+        Map<LocalDate, Long> countByDay = stats.stream().collect(Collectors.groupingBy(
+                TaskDayStatsResponse::day, Collectors.summingLong(TaskDayStatsResponse::count)));
+        assertEquals(Map.of(day, 14L, day.plusDays(1), 16L), countByDay);
+        assertEquals(TaskPriority.values().length * 2, stats.size());
+        assertEquals(1, statistics.getPrepareStatementCount());
+    }
+
+    @Test
+    @org.junit.jupiter.api.Tag("Негативный")
+    @DisplayName("Изменение задачи, измененной параллельно, завершается конфликтом версий")
+    void givenConcurrentUpdate_whenFlushStaleTask_thenThrowOptimisticLockingFailure() {
+        Task task = taskRepository.findAll(PageRequest.of(0, 1)).getContent().get(0);
+        task.setPriority(TaskPriority.URGENT);
+        taskRepository.saveAndFlush(task);
+        assertEquals(1L, task.getVersion());
+
+        entityManager.getEntityManager()
+                .createNativeQuery("UPDATE tasks SET version = version + 1 WHERE id = :id")
+                .setParameter("id", task.getId())
+                .executeUpdate();
+        task.setName("Параллельное изменение");
+
+        assertThrows(ObjectOptimisticLockingFailureException.class, () -> taskRepository.saveAndFlush(task));
+    }
+}
@@ -0,0 +1,187 @@
+package ru.management.service.impl;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import ru.management.dto.change.ChangeEvent;
+import ru.management.enums.ChangeType;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@DisplayName("Тестирование ленты изменений")
+class ChangeFeedServiceTest {
+
+    private final List<RecordingEmitter> emitters = new ArrayList<>();
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private RecordingEmitter nextEmitter;
+
+    @Test
+    @org.junit.jupiter.api.Tag("Позитивный")
+    @DisplayName("Подписчик получает изменения в порядке фиксации")
+    void givenSubscriber_whenChange_thenSendEventsInOrder() {
+        ChangeFeedService feed = feed(Runnable::run, 10, 10);
+        RecordingEmitter emitter = subscribe(feed, null);
+
+        feed.onChange(ChangeEvent.task(ChangeType.TASK_CREATED, 1L));
+        feed.onChange(ChangeEvent.link(ChangeType.TAG_LINKED, 1L, 2L));
+
+        assertEquals(List.of("TASK_CREATED", "TAG_LINKED"), emitter.names());
+    }
+
+    @Test
+    @org.junit.jupiter.api.Tag("Позитивный")
+    @DisplayName("Переподключение с Last-Event-ID досылает только пропущенные события")
+    void givenLastEventId_whenResubscribe_thenReplayOnlyMissed() {
+        ChangeFeedService feed = feed(Runnable::run, 10, 10);
+        RecordingEmitter first = subscribe(feed, null);
+        feed.onChange(ChangeEvent.task(ChangeType.TASK_CREATED, 1L));
+        feed.onChange(ChangeEvent.task(ChangeType.TASK_UPDATED, 1L));
+        feed.onChange(ChangeEvent.task(ChangeType.TASK_DELETED, 1L));
+
+        RecordingEmitter resumed = subscribe(feed, first.ids().get(0));
+
+        assertEquals(List.of("TASK_UPDATED", "TASK_DELETED"), resumed.names());
+        assertEquals(first.ids().subList(1, 3), resumed.ids());
+    }
+
+    @Test
+    @org.junit.jupiter.api.Tag("Негативный")
+    @DisplayName("Вытесненный из буфера или чужой Last-Event-ID приводит к событию RESET")
+    void givenLastEventIdOutsideReplay_whenResubscribe_thenSendReset() {
+        ChangeFeedService feed = feed(Runnable::run, 2, 10);
+        RecordingEmitter first = subscribe(feed, null);
+        for (long i = 1; i <= 4; i++) {
+            feed.onChange(ChangeEvent.task(ChangeType.TASK_CREATED, i));
+        }
+
+        assertEquals(List.of("RESET"), subscribe(feed, first.ids().get(0)).names());
+        assertEquals(List.of("RESET"), subscribe(feed, "restarted:1").names());
+        assertEquals(first.ids().get(3), subscribe(feed, first.ids().get(0)).ids().get(0));
+    }
+
+    @Test
+    @org.junit.jupiter.api.Tag("Негативный")
+    @DisplayName("Подписчик с переполненной очередью отключается, не задерживая рассылку")
+    void givenStalledSubscriber_whenBufferOverflows_thenDisconnect() {
+        List<Runnable> pending = new ArrayList<>();
+        ChangeFeedService feed = feed(pending::add, 10, 2);
+        RecordingEmitter emitter = subscribe(feed, null);
+
+        for (long i = 1; i <= 3; i++) {
+            feed.onChange(ChangeEvent.task(ChangeType.TASK_CREATED, i));
+        }
+
+        assertTrue(emitter.completed);
+        assertEquals(1, pending.size());
+    }
+
+    @Test
+    @org.junit.jupiter.api.Tag("Негативный")
+    @DisplayName("Подписчик с зависшей записью отключается, и поток отправки обслуживает остальных")
+    void givenBlockedSend_whenSendTimeoutExpires_thenDisconnectAndServeOthers() throws Exception {
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        ChangeFeedService feed = feed(executor, 10, 10, Duration.ZERO);
+        BlockingEmitter stalled = new BlockingEmitter();
+        nextEmitter = stalled;
+        RecordingEmitter stalledSubscriber = subscribe(feed, null);
+        feed.onChange(ChangeEvent.task(ChangeType.TASK_CREATED, 1L));
+        assertTrue(stalled.started.await(5, TimeUnit.SECONDS));
+        RecordingEmitter healthy = subscribe(feed, null);
+        feed.onChange(ChangeEvent.task(ChangeType.TASK_UPDATED, 1L));
+
+        feed.dropStalledSubscribers();
+        executor.shutdown();
+
+        assertTrue(executor.awaitTermination(5, TimeUnit.SECONDS));
+        assertTrue(stalledSubscriber.completed);
+        assertEquals(List.of("TASK_UPDATED"), healthy.names());
+        assertEquals(1, meterRegistry.counter("changes.subscribers.dropped").count());
+    }
+
+    private ChangeFeedService feed(Executor executor, int replaySize, int bufferSize) {
+        return feed(executor, replaySize, bufferSize, Duration.ofMinutes(1));
+    }
+
+    private ChangeFeedService feed(Executor executor, int replaySize, int bufferSize, Duration sendTimeout) {
+        return new ChangeFeedService(new ObjectMapper(), meterRegistry, executor,
+                replaySize, bufferSize, Duration.ofMinutes(1), sendTimeout) {
+            @Override
+            SseEmitter createEmitter(long timeout) {
+                RecordingEmitter emitter = nextEmitter == null ? new RecordingEmitter() : nextEmitter;
+                nextEmitter = null;
+                emitters.add(emitter);
+                return emitter;
+            }
+        };
+    }
+
+    private RecordingEmitter subscribe(ChangeFeedService feed, String lastEventId) {
+        feed.subscribe(lastEventId);
+        return emitters.get(emitters.size() - 1);
+    }
+
+    private static class RecordingEmitter extends SseEmitter {
+        private final List<String> sent = new ArrayList<>();
+        private volatile boolean completed;
+
+        @Override
+        public void send(SseEventBuilder builder) throws IOException {
+            sent.add(builder.build().stream()
+                    .map(data -> data.getData().toString())
+                    .collect(Collectors.joining()));
+        }
+
+        @Override
+        public void complete() {
+            completed = true;
+        }
+
+        List<String> names() {
+            return field("event:");
+        }
+
+        List<String> ids() {
+            return field("id:");
+        }
+
+        private List<String> field(String prefix) {
+            return sent.stream()
+                    .flatMap(event -> Arrays.stream(event.split("\n")))
+                    .filter(line -> line.startsWith(prefix))
+                    .map(line -> line.substring(prefix.length()))
+                    .toList();
+        }
+    }
+
+    /**
+     * Клиент, который не читает поток: запись блокируется до прерывания потока отправки
+     */
+    private static class BlockingEmitter extends RecordingEmitter {
+        private final CountDownLatch started = new CountDownLatch(1);
+
+        @Override
+        public void send(SseEventBuilder builder) throws IOException {
+            started.countDown();
+            try {
+                new CountDownLatch(1).await();
+            } catch (InterruptedException e) {
+                throw new IOException("Запись прервана", e);
+            }
+        }
+    }
+}
@@ -0,0 +1,51 @@
+package ru.management.service.impl;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+
+@DisplayName("Тестирование версии данных для условных запросов")
+class DataVersionTrackerTest {
+
+    private final DataVersionTracker dataVersionTracker = new DataVersionTracker();
+
+    @AfterEach
+    void tearDown() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    @org.junit.jupiter.api.Tag("Позитивный")
+    @DisplayName("Версия меняется только после фиксации транзакции")
+    void givenTransaction_whenMarkChanged_thenBumpAfterCommit() {
+        String before = dataVersionTracker.currentETag();
+        TransactionSynchronizationManager.initSynchronization();
+
+        dataVersionTracker.markChanged();
+        assertEquals(before, dataVersionTracker.currentETag());
+
+        TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+        assertNotEquals(before, dataVersionTracker.currentETag());
+    }
+
+    @Test
+    @org.junit.jupiter.api.Tag("Негативный")
+    @DisplayName("Откат транзакции не меняет версию")
+    void givenRollback_whenMarkChanged_thenKeepVersion() {
+        String before = dataVersionTracker.currentETag();
+        TransactionSynchronizationManager.initSynchronization();
+
+        dataVersionTracker.markChanged();
+        TransactionSynchronizationManager.getSynchronizations()
+                .forEach(synchronization -> synchronization.afterCompletion(TransactionSynchronization.STATUS_ROLLED_BACK));
+
+        assertEquals(before, dataVersionTracker.currentETag());
+    }
+}
@@ -0,0 +1,292 @@
+package ru.management.service.impl;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Spy;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.management.dto.file.FileDownload;
+import ru.management.entity.Attachment;
+import ru.management.repository.AttachmentBlobRepository;
+import ru.management.repository.AttachmentRepository;
+import ru.management.repository.TaskRepository;
+
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("Тестирование хранения вложений задач")
+class FileSavedServiceTest {
+
+    @Mock
+    private AttachmentRepository attachmentRepository;
+
+    @Mock
+    private AttachmentBlobRepository attachmentBlobRepository;
+
+    @Mock
+    private TaskRepository taskRepository;
+
+    @Spy
+    private MeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @InjectMocks
+    private FileSavedService fileSavedService;
+
+    @TempDir
+    Path uploadDir;
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(fileSavedService, "uploadDir", uploadDir.toString());
+    }
+
+    @Test
+    @org.junit.jupiter.api.Tag("Позитивный")
+    @DisplayName("Сохранение нового содержимого в подкаталог по контрольной сумме")
+    void givenFile_whenSaveFile_thenStoreShardedAndIndex() throws IOException {
+        MockMultipartFile file = new MockMultipartFile("file", "report.txt", "text/plain",
+                "report".getBytes(StandardCharsets.UTF_8));
+        when(attachmentBlobRepository.acquire(anyString(), eq(6L), any())).thenReturn(1);
+
+        fileSavedService.saveFile(1L, file);
+
+        ArgumentCaptor<Attachment> captor = ArgumentCaptor.forClass(Attachment.class);
+        verify(attachmentRepository).save(captor.capture());
+        Attachment attachment = captor.getValue();
+        String key = attachment.getStorageKey();
+        Path stored = uploadDir.resolve(key.substring(0, 2)).resolve(key.substring(2, 4)).resolve(key);
+        assertEquals("report", Files.readString(stored));
+        assertEquals(1L, attachment.getTaskId());
+        assertEquals(6, attachment.getSize());
+        assertEquals(64, attachment.getChecksum().length());
+        assertEquals(attachment.getChecksum(), key);
+        assertEquals(6, meterRegistry.counter("attachment.upload.bytes").count());
+        assertTempDirIsEmpty();
+    }
+
+    @Test
+    @org.junit.jupiter.api.Tag("Позитивный")
+    @DisplayName("Повторная загрузка одинакового содержимого не создает копию")
+    void givenExistingContent_whenSaveFile_thenReuseStoredFile() throws IOException {
+        MockMultipartFile first = new MockMultipartFile("file", "report.txt", "text/plain",
+                "report".getBytes(StandardCharsets.UTF_8));
+        MockMultipartFile second = new MockMultipartFile("file", "copy.txt", "text/plain",
+                "report".getBytes(StandardCharsets.UTF_8));
+        when(attachmentBlobRepository.acquire(anyString(), eq(6L), any())).thenReturn(1, 2);
+
+        fileSavedService.saveFile(1L, first);
+        fileSavedService.saveFile(2L, second);
+
+        ArgumentCaptor<Attachment> captor = ArgumentCaptor.forClass(Attachment.class);
+        verify(attachmentRepository, times(2)).save(captor.capture());
+        String key = captor.getAllValues().get(0).getStorageKey();
+        assertEquals(key, captor.getAllValues().get(1).getStorageKey());
+        assertEquals("copy.txt", captor.getAllValues().get(1).getOriginalFilename());
+        try (Stream<Path> files = Files.list(uploadDir.resolve(key.substring(0, 2)).resolve(key.substring(2, 4)))) {
+            assertEquals(1, files.count());
+        }
+        assertEquals(6, meterRegistry.counter("attachment.upload.deduplicated.bytes").count());
+        assertTempDirIsEmpty();
+    }
+
+    @Test
+    @org.junit.jupiter.api.Tag("Позитивный")
+    @DisplayName("Содержимое переносится в хранилище только после фиксации транзакции")
+    void givenTransaction_whenSaveFile_thenStoreAfterCommit() throws IOException {
+        when(attachmentBlobRepository.acquire(anyString(), eq(6L), any())).thenReturn(1);
+
+        transaction().executeWithoutResult(status -> {
+            fileSavedService.saveFile(1L, reportFile());
+            assertFalse(Files.exists(storedPath(savedKey())));
+        });
+
+        assertEquals("report", Files.readString(storedPath(savedKey())));
+        assertTempDirIsEmpty();
+    }
+
+    @Test
+    @org.junit.jupiter.api.Tag("Негативный")
+    @DisplayName("Откат транзакции не оставляет файл в хранилище")
+    void givenRolledBackTransaction_whenSaveFile_thenKeepStorageEmpty() throws IOException {
+        when(attachmentBlobRepository.acquire(anyString(), eq(6L), any())).thenReturn(1);
+
+        transaction().executeWithoutResult(status -> {
+            fileSavedService.saveFile(1L, reportFile());
+            status.setRollbackOnly();
+        });
+
+        assertFalse(Files.exists(storedPath(savedKey())));
+        assertTempDirIsEmpty();
+    }
+
+    @Test
+    @org.junit.jupiter.api.Tag("Позитивный")
+    @DisplayName("Удаление содержимого без ссылок")
+    void givenUnreferencedBlob_whenDelete_thenRemoveFile() throws IOException {
+        String key = "abcdef0123456789abcdef0123456789";
+        Path stored = Files.createDirectories(uploadDir.resolve("ab").resolve("cd")).resolve(key);
+        Files.writeString(stored, "report");
+        when(attachmentBlobRepository.deleteIfUnreferenced(key)).thenReturn(1);
+
+        assertTrue(fileSavedService.deleteBlobIfUnreferenced(key));
+        assertFalse(Files.exists(stored));
+    }
+
+    @Test
+    @org.junit.jupiter.api.Tag("Негативный")
+    @DisplayName("Содержимое, на которое снова сослались, не удаляется")
+    void givenReferencedBlob_whenDelete_thenKeepFile() throws IOException {
+        String key = "abcdef0123456789abcdef0123456789";
+        Path stored = Files.createDirectories(uploadDir.resolve("ab").resolve("cd")).resolve(key);
+        Files.writeString(stored, "report");
+        when(attachmentBlobRepository.deleteIfUnreferenced(key)).thenReturn(0);
+
+        assertFalse(fileSavedService.deleteBlobIfUnreferenced(key));
+        assertTrue(Files.exists(stored));
+    }
+
+    @Test
+    @org.junit.jupiter.api.Tag("Позитивный")
+    @DisplayName("Получение файла по записи вложения")
+    void givenAttachment_whenLoadFile_thenOpenByStorageKey() throws IOException {
+        String key = "abcdef0123456789abcdef0123456789";
+        Path stored = Files.createDirectories(uploadDir.resolve("ab").resolve("cd")).resolve(key);
+        Files.writeString(stored, "report");
+        LocalDateTime createdAt = LocalDateTime.now().plusDays(1).withNano(0);
+        when(attachmentRepository.findFirstByTaskIdOrderByIdDesc(1L))
+                .thenReturn(Optional.of(Attachment.builder()
+                        .taskId(1L)
+                        .storageKey(key)
+                        .originalFilename("report.txt")
+                        .contentType("text/plain")
+                        .checksum("checksum")
+                        .createdAt(createdAt)
+                        .build()));
+
+        FileDownload file = fileSavedService.loadFile(1L);
+
+        assertEquals(stored.toFile(), file.resource().getFile());
+        assertEquals("checksum", file.eTag());
+        assertEquals(MediaType.TEXT_PLAIN, file.contentType());
+        assertEquals("report.txt", file.filename());
+        assertEquals(createdAt.atZone(ZoneId.systemDefault()).toInstant(), file.lastModified());
+    }
+
+    @Test
+    @org.junit.jupiter.api.Tag("Негативный")
+    @DisplayName("Получение файла задачи без вложений")
+    void givenNoAttachment_whenLoadFile_thenThrowException() {
+        when(attachmentRepository.findFirstByTaskIdOrderByIdDesc(1L)).thenReturn(Optional.empty());
+
+        assertThrows(FileNotFoundException.class,
+                () -> fileSavedService.loadFile(1L));
+    }
+
+    @Test
+    @org.junit.jupiter.api.Tag("Позитивный")
+    @DisplayName("Файлы старого формата перечисляются от новых к старым")
+    void givenUploadDir_whenFindLegacyFiles_thenListNewestFirst() throws IOException {
+        Path older = legacyFile("task_1_old.txt", Instant.parse("2024-01-01T00:00:00Z"));
+        Path newer = legacyFile("task_1_new.txt", Instant.parse("2024-02-01T00:00:00Z"));
+        Files.writeString(uploadDir.resolve("notes.txt"), "notes");
+        Files.createDirectories(uploadDir.resolve("ab"));
+
+        assertEquals(List.of(newer, older), fileSavedService.findLegacyFiles());
+    }
+
+    @Test
+    @org.junit.jupiter.api.Tag("Позитивный")
+    @DisplayName("Перенос файла старого формата создает вложение и удаляет исходный файл")
+    void givenLegacyFile_whenMigrate_thenIndexAndRemove() throws IOException {
+        Instant lastModified = Instant.parse("2024-01-01T10:00:00Z");
+        Path legacy = legacyFile("task_1_report.txt", lastModified);
+        when(taskRepository.existsById(1L)).thenReturn(true);
+        when(attachmentRepository.findFirstByTaskIdOrderByIdDesc(1L)).thenReturn(Optional.empty());
+        when(attachmentBlobRepository.acquire(anyString(), eq(6L), any())).thenReturn(1);
+
+        assertTrue(fileSavedService.migrateLegacyFile(legacy));
+
+        ArgumentCaptor<Attachment> captor = ArgumentCaptor.forClass(Attachment.class);
+        verify(attachmentRepository).save(captor.capture());
+        Attachment attachment = captor.getValue();
+        assertEquals(1L, attachment.getTaskId());
+        assertEquals("report.txt", attachment.getOriginalFilename());
+        assertEquals(LocalDateTime.ofInstant(lastModified, ZoneId.systemDefault()), attachment.getCreatedAt());
+        assertEquals("report", Files.readString(storedPath(attachment.getStorageKey())));
+        assertFalse(Files.exists(legacy));
+    }
+
+    @Test
+    @org.junit.jupiter.api.Tag("Негативный")
+    @DisplayName("Файл старого формата задачи с вложением не переносится и удаляется")
+    void givenTaskWithAttachment_whenMigrateLegacyFile_thenOnlyRemove() throws IOException {
+        Path legacy = legacyFile("task_1_report.txt", Instant.parse("2024-01-01T10:00:00Z"));
+        when(taskRepository.existsById(1L)).thenReturn(true);
+        when(attachmentRepository.findFirstByTaskIdOrderByIdDesc(1L))
+                .thenReturn(Optional.of(Attachment.builder().taskId(1L).build()));
+
+        assertFalse(fileSavedService.migrateLegacyFile(legacy));
+
+        verify(attachmentRepository, never()).save(any());
+        assertFalse(Files.exists(legacy));
+    }
+
+    private Path legacyFile(String name, Instant lastModified) throws IOException {
+        Path file = Files.writeString(uploadDir.resolve(name), "report");
+        Files.setLastModifiedTime(file, FileTime.from(lastModified));
+        return file;
+    }
+
+    private MockMultipartFile reportFile() {
+        return new MockMultipartFile("file", "report.txt", "text/plain", "report".getBytes(StandardCharsets.UTF_8));
+    }
+
+    private String savedKey() {
+        ArgumentCaptor<Attachment> captor = ArgumentCaptor.forClass(Attachment.class);
+        verify(attachmentRepository).save(captor.capture());
+        return captor.getValue().getStorageKey();
+    }
+
+    private Path storedPath(String key) {
+        return uploadDir.resolve(key.substring(0, 2)).resolve(key.substring(2, 4)).resolve(key);
+    }
+
+    private static TransactionTemplate transaction() {
+        return new TransactionTemplate(new DataSourceTransactionManager(new DriverManagerDataSource(
+                "jdbc:h2:mem:files-" + UUID.randomUUID() + ";DB_CLOSE_DELAY=-1", "sa", "")));
+    }
+
+    private void assertTempDirIsEmpty() throws IOException {
+        try (Stream<Path> files = Files.list(uploadDir.resolve("tmp"))) {
+            assertEquals(0, files.count());
+        }
+    }
+}
@@ -8,13 +8,18 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+import ru.management.dto.change.ChangeEvent;
 import ru.management.dto.tag.TagCreateOrUpdateRequest;
+import ru.management.dto.tag.TagResolveResponse;
 import ru.management.dto.tag.TagResponse;
 import ru.management.entity.Tag;
 import ru.management.entity.Task;
 import ru.management.entity.exception.TagExistException;
+import ru.management.enums.ChangeType;
 import ru.management.mapper.TagMapper;
 import ru.management.repository.TagRepository;
+import ru.management.repository.TagResolveRow;
 import ru.management.repository.TaskRepository;
 
 import java.util.*;
@@ -38,6 +43,15 @@ class TagServiceImplTest {
     @Mock
     private TagMapper tagMapper;
 
+    @Mock
+    private CacheEvictionService cacheEvictionService;
+
+    @Mock
+    private DataVersionTracker dataVersionTracker;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
     @InjectMocks
     private TagServiceImpl tagService;
 
@@ -65,7 +79,7 @@ class TagServiceImplTest {
 
         createRequest = new TagCreateOrUpdateRequest("#backend");
         updateRequest = new TagCreateOrUpdateRequest("#frontend");
-        tagResponse = new TagResponse(1L, "#backend");
+        tagResponse = new TagResponse(1L, "#backend", 1);
     }
 
     @Test
@@ -87,15 +101,34 @@ class TagServiceImplTest {
     @org.junit.jupiter.api.Tag("Позитивный")
     @DisplayName("Создание тега")
     void givenValidRequest_whenCreateTag_thenSuccess() {
-        when(tagMapper.toEntity(createRequest)).thenReturn(testTag);
-        when(tagRepository.save(testTag)).thenReturn(testTag);
-        when(tagMapper.toDto(testTag)).thenReturn(tagResponse);
+        when(tagRepository.insertIfAbsent("#backend")).thenReturn(Optional.of(1L));
 
         TagResponse result = tagService.createTag(createRequest);
 
         assertNotNull(result);
-        assertEquals("#backend", result.name());
-        verify(tagRepository, times(1)).save(testTag);
+        assertEquals(new TagResponse(1L, "#backend", 0), result);
+        verify(tagRepository, never()).save(any());
+        verify(dataVersionTracker).markChanged();
+        verify(eventPublisher).publishEvent(ChangeEvent.tag(ChangeType.TAG_CREATED, 1L));
+    }
+
+    @Test
+    @org.junit.jupiter.api.Tag("Позитивный")
+    @DisplayName("Получение тегов по именам с созданием недостающих")
+    void givenNames_whenResolveTags_thenReturnAllInRequestOrder() {
+        List<TagResolveRow> rows = List.of(row(5L, "#new", true), row(1L, "#backend", false));
+        when(tagRepository.resolveByNames(new String[]{"#new", "#backend", "#late"})).thenReturn(rows);
+        when(tagRepository.findByNameIn(List.of("#late")))
+                .thenReturn(List.of(Tag.builder().id(7L).name("#late").build()));
+
+        List<TagResolveResponse> result = tagService.resolveTags(List.of("#new", "#backend", "#new", "#late"));
+
+        assertEquals(List.of(
+                new TagResolveResponse(5L, "#new", true),
+                new TagResolveResponse(1L, "#backend", false),
+                new TagResolveResponse(7L, "#late", false)), result);
+        verify(dataVersionTracker).markChanged();
+        verify(eventPublisher).publishEvent(ChangeEvent.tag(ChangeType.TAG_CREATED, 5L));
     }
 
     @Test
@@ -104,13 +137,15 @@ class TagServiceImplTest {
     void givenValidRequest_whenUpdateTag_thenSuccess() {
         when(tagRepository.findById(1L)).thenReturn(Optional.of(testTag));
         when(tagRepository.save(testTag)).thenReturn(testTag);
-        when(tagMapper.toDto(testTag)).thenReturn(new TagResponse(1L, "#frontend"));
+        when(tagMapper.toDto(testTag)).thenReturn(new TagResponse(1L, "#frontend", 1));
 
         TagResponse result = tagService.updateTag(1L, updateRequest);
 
         assertNotNull(result);
         assertEquals("#frontend", result.name());
         verify(tagRepository, times(1)).save(testTag);
+        verify(cacheEvictionService).clearTasks();
+        verify(dataVersionTracker).markChanged();
     }
 
     @Test
@@ -118,10 +153,17 @@ class TagServiceImplTest {
     @DisplayName("Удаление тега с одной задачей")
     void givenValidRequest_whenDeleteTag_thenSuccess() {
         when(tagRepository.findById(1L)).thenReturn(Optional.of(testTag));
+        when(taskRepository.findTaskIdWithOtherTags(1L)).thenReturn(Optional.empty());
+        when(taskRepository.deleteTasksByTagId(eq(1L), anyInt())).thenReturn(1, 0);
 
-        tagService.deleteTagAndTasks(1L);
+        int deleted = tagService.deleteTagAndTasks(1L);
 
-        verify(tagRepository, times(1)).delete(testTag);
+        assertEquals(1, deleted);
+        verify(tagRepository, times(1)).deleteById(1L);
+        verify(cacheEvictionService).evictTasksByTag(1L);
+        verify(cacheEvictionService).evictTagsForTasks();
+        verify(cacheEvictionService).clearTasks();
+        verify(dataVersionTracker).markChanged();
     }
 
     @Test
@@ -138,10 +180,11 @@ class TagServiceImplTest {
     @org.junit.jupiter.api.Tag("Негативный")
     @DisplayName("Создание существующего тега")
     void givenExistingTag_whenCreateTag_thenThrowException() {
-        when(tagRepository.existsByName("#backend")).thenReturn(true);
+        when(tagRepository.insertIfAbsent("#backend")).thenReturn(Optional.empty());
 
         assertThrows(TagExistException.class,
                 () -> tagService.createTag(createRequest));
+        verifyNoInteractions(dataVersionTracker);
     }
 
     @Test
@@ -163,4 +206,29 @@ class TagServiceImplTest {
         assertThrows(EntityNotFoundException.class,
                 () -> tagService.deleteTagAndTasks(99L));
     }
-}
\ No newline at end of file
+
+    @Test
+    @org.junit.jupiter.api.Tag("Негативный")
+    @DisplayName("Удаление тега, задача которого содержит несколько тегов")
+    void givenTaskWithSeveralTags_whenDeleteTag_thenThrowException() {
+        Tag secondTag = Tag.builder().id(2L).name("#frontend").build();
+        testTask.getTags().add(secondTag);
+        when(tagRepository.findById(1L)).thenReturn(Optional.of(testTag));
+        when(taskRepository.findTaskIdWithOtherTags(1L)).thenReturn(Optional.of(1L));
+        when(taskRepository.findById(1L)).thenReturn(Optional.of(testTask));
+
+        assertThrows(TagExistException.class,
+                () -> tagService.deleteTagAndTasks(1L));
+        verify(taskRepository, never()).deleteTasksByTagId(anyLong(), anyInt());
+        verify(tagRepository, never()).deleteById(anyLong());
+        verifyNoInteractions(cacheEvictionService, dataVersionTracker);
+    }
+
+    private TagResolveRow row(Long id, String name, boolean created) {
+        TagResolveRow row = mock(TagResolveRow.class);
+        lenient().when(row.getId()).thenReturn(id);
+        lenient().when(row.getName()).thenReturn(name);
+        lenient().when(row.getCreated()).thenReturn(created);
+        return row;
+    }
+}
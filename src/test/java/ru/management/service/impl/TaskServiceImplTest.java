@@ -1,27 +1,55 @@
 package ru.management.service.impl;
 
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.persistence.EntityManager;
 import jakarta.persistence.EntityNotFoundException;
+import jakarta.validation.ConstraintViolationException;
+import jakarta.validation.Validation;
+import jakarta.validation.Validator;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.web.multipart.MultipartFile;
+import ru.management.dto.change.ChangeEvent;
+import ru.management.dto.task.TaskBatchItemResponse;
 import ru.management.dto.task.TaskCreateOrUpdateRequest;
 import ru.management.dto.task.TaskPriorityResponse;
+import ru.management.dto.task.TaskCursor;
+import ru.management.dto.task.TaskDayStatsResponse;
 import ru.management.dto.task.TaskResponse;
+import ru.management.dto.task.TaskScrollResponse;
+import ru.management.dto.task.TaskSearchCursor;
+import ru.management.dto.task.TaskTagBulkResponse;
 import ru.management.entity.Tag;
 import ru.management.entity.Task;
+import ru.management.entity.exception.InvalidCursorException;
+import ru.management.entity.exception.InvalidPatchException;
+import ru.management.entity.exception.InvalidPeriodException;
+import ru.management.entity.exception.PreconditionFailedException;
+import ru.management.enums.ChangeType;
 import ru.management.enums.TaskPriority;
 import ru.management.mapper.TaskMapper;
 import ru.management.repository.TagRepository;
 import ru.management.repository.TaskRepository;
-
+import ru.management.repository.TaskRow;
+import ru.management.repository.TaskSearchHit;
+import ru.management.repository.TaskTagCounts;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
 import java.time.LocalDateTime;
 
 import java.util.*;
+import java.util.stream.Stream;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.Mockito.*;
@@ -34,6 +62,14 @@ class TaskServiceImplTest {
     @Mock private TagRepository tagRepository;
     @Mock private TaskMapper taskMapper;
     @Mock private FileSavedService fileSavedService;
+    @Mock private EntityManager entityManager;
+    @Mock private CacheEvictionService cacheEvictionService;
+    @Mock private DataVersionTracker dataVersionTracker;
+    @Mock private TaskStatsCache taskStatsCache;
+    @Mock private ApplicationEventPublisher eventPublisher;
+    @Mock private TaskResponseAssembler taskResponseAssembler;
+    @Spy private ObjectMapper objectMapper = new ObjectMapper().findAndRegisterModules();
+    @Spy private Validator validator = Validation.buildDefaultValidatorFactory().getValidator();
 
     @InjectMocks private TaskServiceImpl taskService;
 
@@ -59,7 +95,7 @@ class TaskServiceImplTest {
 
         taskResponse = new TaskResponse(
                 1L, "Fix login bug", "User can't login",
-                LocalDateTime.now(), TaskPriority.IMPORTANT, Set.of());
+                LocalDateTime.now(), TaskPriority.IMPORTANT, Set.of(), 0L);
     }
 
     @Test
@@ -76,6 +112,30 @@ class TaskServiceImplTest {
         verify(taskRepository).save(testTask);
     }
 
+    @Test
+    @org.junit.jupiter.api.Tag("Позитивный")
+    @DisplayName("Пакетное создание задач с некорректной задачей")
+    void givenBatchWithInvalidTask_whenCreateTasks_thenRejectOnlyInvalid() {
+        TaskCreateOrUpdateRequest validRequest = new TaskCreateOrUpdateRequest(
+                "Fix login bug", "User can't login",
+                LocalDateTime.now().plusDays(1), TaskPriority.IMPORTANT);
+        TaskCreateOrUpdateRequest invalidRequest = new TaskCreateOrUpdateRequest(
+                "", null, LocalDateTime.now().plusDays(1), TaskPriority.USUAL);
+        when(taskMapper.toEntity(validRequest)).thenReturn(testTask);
+        when(taskRepository.saveAll(List.of(testTask))).thenReturn(List.of(testTask));
+        when(taskMapper.toDto(testTask)).thenReturn(taskResponse);
+
+        List<TaskBatchItemResponse> result = taskService.createTasks(List.of(validRequest, invalidRequest));
+
+        assertEquals(2, result.size());
+        assertTrue(result.get(0).created());
+        assertEquals(taskResponse, result.get(0).task());
+        assertFalse(result.get(1).created());
+        assertEquals(1, result.get(1).index());
+        assertFalse(result.get(1).violations().isEmpty());
+        verify(entityManager).flush();
+    }
+
     @Test
     @org.junit.jupiter.api.Tag("Позитивный")
     @DisplayName("Обновление задачи")
@@ -87,15 +147,34 @@ class TaskServiceImplTest {
         TaskResponse result = taskService.updateTask(1L, createRequest);
         assertNotNull(result);
         verify(taskRepository).save(testTask);
+        verify(cacheEvictionService).evictTask(1L, List.of());
+        verify(cacheEvictionService).evictTaskStats(createRequest.scheduledDate());
+        verify(dataVersionTracker).markChanged();
+    }
+
+    @Test
+    @org.junit.jupiter.api.Tag("Позитивный")
+    @DisplayName("Получение задачи по id")
+    void givenExistingTask_whenGetTask_thenReturnTask() {
+        when(taskRepository.findById(1L)).thenReturn(Optional.of(testTask));
+        when(taskMapper.toDto(testTask)).thenReturn(taskResponse);
+
+        assertEquals(taskResponse, taskService.getTask(1L));
     }
 
     @Test
     @org.junit.jupiter.api.Tag("Позитивный")
     @DisplayName("Удаление задачи")
     void givenExistingTask_whenDelete_thenSuccess() {
-        when(taskRepository.existsById(1L)).thenReturn(true);
+        testTask.getTags().add(testTag);
+        when(taskRepository.findById(1L)).thenReturn(Optional.of(testTask));
         taskService.deleteTask(1L);
+        verify(cacheEvictionService).clearTaskResponses();
+        verify(cacheEvictionService).evictTagsForTasks();
+        verify(tagRepository).decrementTaskCountForTask(1L);
+        verify(fileSavedService).releaseTaskFiles(1L);
         verify(taskRepository).deleteById(1L);
+        verify(eventPublisher).publishEvent(ChangeEvent.task(ChangeType.TASK_DELETED, 1L));
     }
 
     @Test
@@ -127,13 +206,16 @@ class TaskServiceImplTest {
     @org.junit.jupiter.api.Tag("Позитивный")
     @DisplayName("Получение задач по тегу")
     void givenValidTagId_whenGetTasksByTag_thenSuccess() {
-        when(tagRepository.existsById(1L)).thenReturn(true);
-        when(taskRepository.findTaskByTagIdOrderByPriorityByDesc(1L)).thenReturn(List.of(testTask));
-        when(taskMapper.entityListToResponseList(anyList())).thenReturn(List.of(taskResponse));
+        when(tagRepository.findById(1L)).thenReturn(Optional.of(testTag));
+        List<TaskRow> rows = List.of(new TaskRow(1L, "Fix login bug", "User can't login", LocalDateTime.now(),
+                TaskPriority.IMPORTANT, 0L));
+        when(taskRepository.findRowsByTagIdOrderByPriorityDesc(1L)).thenReturn(rows);
+        when(taskResponseAssembler.toResponses(rows)).thenReturn(List.of(taskResponse));
 
         List<TaskResponse> result = taskService.getAllTasksByTagId(1L);
         assertEquals(1, result.size());
-        verify(taskRepository).findTaskByTagIdOrderByPriorityByDesc(1L);
+        verify(taskRepository).findRowsByTagIdOrderByPriorityDesc(1L);
+        verifyNoInteractions(taskMapper);
     }
 
     @Test
@@ -148,6 +230,11 @@ class TaskServiceImplTest {
 
         TaskResponse result = taskService.addTagToTask(1L, 1L);
         assertNotNull(result);
+        verify(tagRepository).changeTaskCount(1L, 1);
+        assertEquals(1, testTag.getTaskCount());
+        verify(cacheEvictionService).clearTaskResponses();
+        verify(cacheEvictionService).evictTagsForTasks();
+        verify(cacheEvictionService).evictTags(List.of(1L));
         verify(taskRepository).save(testTask);
     }
 
@@ -155,6 +242,7 @@ class TaskServiceImplTest {
     @org.junit.jupiter.api.Tag("Позитивный")
     @DisplayName("Удаление тега у задачи")
     void givenValidIds_whenRemoveTag_thenSuccess() {
+        testTag.setTaskCount(1);
         testTask.setTags(new HashSet<>(Set.of(testTag)));
         when(taskRepository.findById(1L)).thenReturn(Optional.of(testTask));
         when(tagRepository.findById(1L)).thenReturn(Optional.of(testTag));
@@ -163,9 +251,191 @@ class TaskServiceImplTest {
 
         TaskResponse result = taskService.removeTagFromTask(1L, 1L);
         assertNotNull(result);
+        verify(tagRepository).changeTaskCount(1L, -1);
+        assertEquals(0, testTag.getTaskCount());
+        verify(cacheEvictionService).clearTaskResponses();
+        verify(cacheEvictionService).evictTagsForTasks();
         verify(taskRepository).save(testTask);
     }
 
+    @Test
+    @org.junit.jupiter.api.Tag("Позитивный")
+    @DisplayName("Получение порции задач по курсору")
+    void givenCursor_whenScrollTasks_thenReturnNextCursor() {
+        LocalDateTime scheduledDate = LocalDateTime.of(2030, 1, 1, 10, 0);
+        Task nextTask = Task.builder().id(2L).name("Next").scheduledDate(scheduledDate.plusDays(1)).build();
+        testTask.setScheduledDate(scheduledDate);
+        String cursor = new TaskCursor(scheduledDate.minusDays(1), 5L).encode();
+        when(taskRepository.findNextScheduled(scheduledDate.minusDays(1), 5L, 2))
+                .thenReturn(List.of(testTask, nextTask));
+        when(taskMapper.entityListToResponseList(List.of(testTask))).thenReturn(List.of(taskResponse));
+
+        TaskScrollResponse result = taskService.scrollTasks(cursor, 1, false);
+
+        assertEquals(1, result.content().size());
+        assertEquals(TaskCursor.of(testTask), TaskCursor.decode(result.nextCursor()));
+        assertNull(result.totalElements());
+        verify(taskRepository, never()).findNextUnscheduled(anyLong(), anyInt());
+    }
+
+    @Test
+    @org.junit.jupiter.api.Tag("Позитивный")
+    @DisplayName("Поиск задач возвращает их в порядке релевантности")
+    void givenHits_whenSearchTasks_thenKeepRankOrderAndReturnCursor() {
+        Task secondTask = Task.builder().id(2L).name("Fix logout bug").tags(new HashSet<>()).build();
+        List<TaskSearchHit> hits = List.of(hit(2L, 0.9f), hit(1L, 0.5f), hit(3L, 0.1f));
+        when(taskRepository.search(eq("bug"), isNull(), isNull(), isNull(), isNull(), eq(0L), eq(3)))
+                .thenReturn(hits);
+        when(taskRepository.findAllById(List.of(2L, 1L))).thenReturn(List.of(testTask, secondTask));
+        when(taskMapper.entityListToResponseList(List.of(secondTask, testTask))).thenReturn(List.of(taskResponse, taskResponse));
+
+        TaskScrollResponse result = taskService.searchTasks("bug", null, null, null, null, 2);
+
+        assertEquals(2, result.content().size());
+        assertEquals(new TaskSearchCursor(0.5f, 1L), TaskSearchCursor.decode(result.nextCursor()));
+    }
+
+    @Test
+    @org.junit.jupiter.api.Tag("Негативный")
+    @DisplayName("Поиск задач по некорректному курсору")
+    void givenInvalidCursor_whenSearchTasks_thenThrowException() {
+        assertThrows(InvalidCursorException.class,
+                () -> taskService.searchTasks("bug", null, null, null, "%%%", 20));
+    }
+
+    @Test
+    @org.junit.jupiter.api.Tag("Негативный")
+    @DisplayName("Получение порции задач по некорректному курсору")
+    void givenInvalidCursor_whenScrollTasks_thenThrowException() {
+        assertThrows(InvalidCursorException.class,
+                () -> taskService.scrollTasks("%%%", 20, false));
+    }
+
+    @Test
+    @org.junit.jupiter.api.Tag("Позитивный")
+    @DisplayName("Выгрузка задач за период в NDJSON")
+    void givenPeriod_whenExportTasks_thenWriteOneLinePerTask() throws IOException {
+        LocalDate date = LocalDate.of(2030, 1, 1);
+        when(taskRepository.streamByTasksBetweenDateByPriorityDesc(any(), any()))
+                .thenReturn(Stream.of(testTask, testTask));
+        when(taskMapper.entityListToResponseList(anyList()))
+                .thenReturn(List.of(taskResponse, taskResponse), List.of());
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+
+        taskService.exportTasksBetweenDateByPriorityDesc(date, date, outputStream);
+
+        String[] lines = outputStream.toString(StandardCharsets.UTF_8).split("\n");
+        assertEquals(2, lines.length);
+        assertEquals("Fix login bug", objectMapper.readTree(lines[0]).get("name").asText());
+        verify(entityManager, atLeastOnce()).clear();
+    }
+
+    @Test
+    @org.junit.jupiter.api.Tag("Позитивный")
+    @DisplayName("Частичное обновление меняет только поля из патча, прошедшая дата не мешает")
+    void givenMergePatch_whenPatchTask_thenChangeOnlyPatchedFields() throws IOException {
+        LocalDateTime pastDate = LocalDateTime.of(2020, 1, 1, 10, 0);
+        testTask.setScheduledDate(pastDate);
+        testTask.setVersion(3L);
+        when(taskRepository.findById(1L)).thenReturn(Optional.of(testTask));
+        when(taskMapper.toDto(testTask)).thenReturn(taskResponse);
+
+        taskService.patchTask(1L, objectMapper.readTree("{\"priority\":\"URGENT\",\"description\":null}"), 3L);
+
+        assertEquals(TaskPriority.URGENT, testTask.getPriority());
+        assertNull(testTask.getDescription());
+        assertEquals("Fix login bug", testTask.getName());
+        assertEquals(pastDate, testTask.getScheduledDate());
+        verify(taskRepository).saveAndFlush(testTask);
+        verify(cacheEvictionService).evictTask(1L, List.of());
+        verify(eventPublisher).publishEvent(ChangeEvent.task(ChangeType.TASK_UPDATED, 1L));
+    }
+
+    @Test
+    @org.junit.jupiter.api.Tag("Позитивный")
+    @DisplayName("Патч без изменений не пишет в базу")
+    void givenUnchangedValues_whenPatchTask_thenSkipWrite() throws IOException {
+        when(taskRepository.findById(1L)).thenReturn(Optional.of(testTask));
+        when(taskMapper.toDto(testTask)).thenReturn(taskResponse);
+
+        taskService.patchTask(1L, objectMapper.readTree("{\"priority\":\"IMPORTANT\"}"), null);
+
+        verify(taskRepository, never()).saveAndFlush(any());
+        verifyNoInteractions(cacheEvictionService, dataVersionTracker, eventPublisher);
+    }
+
+    @Test
+    @org.junit.jupiter.api.Tag("Негативный")
+    @DisplayName("Версия из If-Match не совпадает с текущей")
+    void givenStaleVersion_whenPatchTask_thenThrowPreconditionFailed() throws IOException {
+        testTask.setVersion(4L);
+        when(taskRepository.findById(1L)).thenReturn(Optional.of(testTask));
+        JsonNode patch = objectMapper.readTree("{\"priority\":\"URGENT\"}");
+
+        assertThrows(PreconditionFailedException.class, () -> taskService.patchTask(1L, patch, 3L));
+        assertEquals(TaskPriority.IMPORTANT, testTask.getPriority());
+        verify(taskRepository, never()).saveAndFlush(any());
+    }
+
+    @Test
+    @org.junit.jupiter.api.Tag("Негативный")
+    @DisplayName("Патч с неизвестным полем или пустым названием")
+    void givenInvalidPatch_whenPatchTask_thenThrowException() throws IOException {
+        when(taskRepository.findById(1L)).thenReturn(Optional.of(testTask));
+        JsonNode unknownField = objectMapper.readTree("{\"id\":5}");
+        JsonNode emptyName = objectMapper.readTree("{\"name\":null}");
+
+        assertThrows(InvalidPatchException.class, () -> taskService.patchTask(1L, unknownField, null));
+        assertThrows(ConstraintViolationException.class, () -> taskService.patchTask(1L, emptyName, null));
+        verify(taskRepository, never()).saveAndFlush(any());
+    }
+
+    @Test
+    @org.junit.jupiter.api.Tag("Позитивный")
+    @DisplayName("Статистика прошедших дней: кэшированные дни не пересчитываются, пустые дни кэшируются")
+    void givenPartiallyCachedPastDays_whenGetTaskStats_thenQueryOnlyMissingRange() {
+        LocalDate start = LocalDate.now().minusDays(10);
+        LocalDate end = start.plusDays(2);
+        TaskDayStatsResponse cached = new TaskDayStatsResponse(start, TaskPriority.URGENT, 3);
+        TaskDayStatsResponse loaded = new TaskDayStatsResponse(end, TaskPriority.USUAL, 2);
+        when(taskStatsCache.get(any(), eq(5L))).thenReturn(Optional.empty());
+        when(taskStatsCache.get(start, 5L)).thenReturn(Optional.of(List.of(cached)));
+        when(taskRepository.countByDayAndPriority(
+                start.plusDays(1).atStartOfDay(), end.plusDays(1).atStartOfDay(), 5L))
+                .thenReturn(List.of(loaded));
+
+        List<TaskDayStatsResponse> result = taskService.getTaskStats(start, end, 5L);
+
+        assertEquals(List.of(cached, loaded), result);
+        verify(taskStatsCache).put(start.plusDays(1), 5L, List.of());
+        verify(taskStatsCache).put(end, 5L, List.of(loaded));
+        verify(taskRepository, times(1)).countByDayAndPriority(any(), any(), any());
+    }
+
+    @Test
+    @org.junit.jupiter.api.Tag("Позитивный")
+    @DisplayName("Статистика текущего дня всегда считается заново")
+    void givenToday_whenGetTaskStats_thenSkipCache() {
+        LocalDate today = LocalDate.now();
+        TaskDayStatsResponse stats = new TaskDayStatsResponse(today, TaskPriority.IMPORTANT, 1);
+        when(taskRepository.countByDayAndPriority(today.atStartOfDay(), today.plusDays(1).atStartOfDay(), null))
+                .thenReturn(List.of(stats));
+
+        assertEquals(List.of(stats), taskService.getTaskStats(today, today, null));
+        verifyNoInteractions(taskStatsCache);
+    }
+
+    @Test
+    @org.junit.jupiter.api.Tag("Негативный")
+    @DisplayName("Статистика за период длиннее года или с концом раньше начала")
+    void givenInvalidPeriod_whenGetTaskStats_thenThrowException() {
+        LocalDate start = LocalDate.of(2030, 1, 1);
+
+        assertThrows(InvalidPeriodException.class, () -> taskService.getTaskStats(start, start.minusDays(1), null));
+        assertThrows(InvalidPeriodException.class, () -> taskService.getTaskStats(start, start.plusDays(366), null));
+        verifyNoInteractions(taskRepository);
+    }
+
     @Test
     @org.junit.jupiter.api.Tag("Негативный")
     @DisplayName("Обновление несуществующей задачи")
@@ -180,10 +450,11 @@ class TaskServiceImplTest {
     @org.junit.jupiter.api.Tag("Негативный")
     @DisplayName("Удаление несуществующей задачи")
     void givenNonExistingTask_whenDelete_thenThrowException() {
-        when(taskRepository.existsById(99L)).thenReturn(false);
+        when(taskRepository.findById(99L)).thenReturn(Optional.empty());
 
         assertThrows(EntityNotFoundException.class,
                 () -> taskService.deleteTask(99L));
+        verifyNoInteractions(cacheEvictionService, dataVersionTracker);
     }
 
 
@@ -203,7 +474,7 @@ class TaskServiceImplTest {
     @org.junit.jupiter.api.Tag("Негативный")
     @DisplayName("Получение задач по несуществующему тегу")
     void givenInvalidTagId_whenGetTasksByTag_thenThrowException() {
-        when(tagRepository.existsById(99L)).thenReturn(false);
+        when(tagRepository.findById(99L)).thenReturn(Optional.empty());
 
         assertThrows(EntityNotFoundException.class,
                 () -> taskService.getAllTasksByTagId(99L));
@@ -220,4 +491,60 @@ class TaskServiceImplTest {
         assertThrows(IllegalStateException.class,
                 () -> taskService.removeTagFromTask(1L, 1L));
     }
-}
\ No newline at end of file
+
+    @Test
+    @org.junit.jupiter.api.Tag("Позитивный")
+    @DisplayName("Пакетное добавление тегов к задачам")
+    void givenExistingIds_whenLinkTags_thenReturnLinkedCount() {
+        TaskTagCounts counts = counts(2, 1);
+        when(taskRepository.lockTasksAndTags(any(), any())).thenReturn(counts);
+        when(taskRepository.linkTags(any(), any())).thenReturn(2L);
+
+        assertEquals(new TaskTagBulkResponse(2), taskService.linkTags(Set.of(1L, 2L), Set.of(1L)));
+        verify(cacheEvictionService).clearTasks();
+        verify(cacheEvictionService).evictTagsForTasks();
+        verify(cacheEvictionService).evictTags(Set.of(1L));
+        verify(dataVersionTracker).markChanged();
+        verify(eventPublisher).publishEvent(new ChangeEvent(ChangeType.TAGS_LINKED, null, null));
+    }
+
+    @Test
+    @org.junit.jupiter.api.Tag("Позитивный")
+    @DisplayName("Пакетное удаление отсутствующих связей ничего не меняет")
+    void givenNoLinks_whenUnlinkTags_thenSkipEviction() {
+        TaskTagCounts counts = counts(1, 1);
+        when(taskRepository.lockTasksAndTags(any(), any())).thenReturn(counts);
+        when(taskRepository.unlinkTags(any(), any())).thenReturn(0L);
+
+        assertEquals(new TaskTagBulkResponse(0), taskService.unlinkTags(Set.of(1L), Set.of(1L)));
+        verifyNoInteractions(cacheEvictionService, dataVersionTracker, eventPublisher);
+    }
+
+    @Test
+    @org.junit.jupiter.api.Tag("Негативный")
+    @DisplayName("Пакетное добавление с несуществующим тегом")
+    void givenMissingTag_whenLinkTags_thenThrowException() {
+        TaskTagCounts counts = counts(1, 1);
+        when(taskRepository.lockTasksAndTags(any(), any())).thenReturn(counts);
+        when(tagRepository.findExistingIds(anyCollection())).thenReturn(List.of(1L));
+
+        EntityNotFoundException exception = assertThrows(EntityNotFoundException.class,
+                () -> taskService.linkTags(Set.of(1L), Set.of(1L, 9L)));
+        assertTrue(exception.getMessage().contains("[9]"));
+        verify(taskRepository, never()).linkTags(any(), any());
+    }
+
+    private TaskTagCounts counts(long tasks, long tags) {
+        TaskTagCounts counts = mock(TaskTagCounts.class);
+        lenient().when(counts.getTasks()).thenReturn(tasks);
+        lenient().when(counts.getTags()).thenReturn(tags);
+        return counts;
+    }
+
+    private TaskSearchHit hit(Long id, float rank) {
+        TaskSearchHit hit = mock(TaskSearchHit.class);
+        lenient().when(hit.getId()).thenReturn(id);
+        lenient().when(hit.getRank()).thenReturn(rank);
+        return hit;
+    }
+}
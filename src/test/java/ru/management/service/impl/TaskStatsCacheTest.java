@@ -0,0 +1,71 @@
+package ru.management.service.impl;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.cache.caffeine.CaffeineCacheManager;
+import org.springframework.cache.transaction.TransactionAwareCacheManagerProxy;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import ru.management.config.CacheNames;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@DisplayName("Тестирование кэша статистики задач")
+class TaskStatsCacheTest {
+
+    private static final LocalDate DAY = LocalDate.of(2024, 1, 1);
+
+    private final TaskStatsCache taskStatsCache = new TaskStatsCache(
+            new TransactionAwareCacheManagerProxy(new CaffeineCacheManager(CacheNames.TASK_STATS)));
+
+    @AfterEach
+    void tearDown() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    @org.junit.jupiter.api.Tag("Позитивный")
+    @DisplayName("Статистика дня очищается после фиксации вместе с положенной до нее")
+    void givenTransaction_whenEvictDay_thenEvictKeysPutBeforeCommit() throws InterruptedException {
+        TransactionSynchronizationManager.initSynchronization();
+        taskStatsCache.evictDay(DAY);
+
+        putOutsideTransaction(DAY, 1L);
+        putOutsideTransaction(DAY.plusDays(1), 1L);
+        assertTrue(taskStatsCache.get(DAY, 1L).isPresent());
+
+        TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+        assertFalse(taskStatsCache.get(DAY, 1L).isPresent());
+        assertTrue(taskStatsCache.get(DAY.plusDays(1), 1L).isPresent());
+    }
+
+    @Test
+    @org.junit.jupiter.api.Tag("Негативный")
+    @DisplayName("Откат транзакции не очищает статистику дня")
+    void givenTransaction_whenRollback_thenKeepDay() throws InterruptedException {
+        putOutsideTransaction(DAY, 1L);
+        TransactionSynchronizationManager.initSynchronization();
+
+        taskStatsCache.evictDay(DAY);
+        TransactionSynchronizationManager.getSynchronizations()
+                .forEach(sync -> sync.afterCompletion(TransactionSynchronization.STATUS_ROLLED_BACK));
+
+        assertTrue(taskStatsCache.get(DAY, 1L).isPresent());
+    }
+
+    /**
+     * Параллельное чтение кладет статистику из другого потока, вне транзакции
+     */
+    private void putOutsideTransaction(LocalDate day, Long tagId) throws InterruptedException {
+        Thread reader = new Thread(() -> taskStatsCache.put(day, tagId, List.of()));
+        reader.start();
+        reader.join();
+    }
+}